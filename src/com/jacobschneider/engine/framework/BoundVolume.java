@@ -1,7 +1,9 @@
 package com.jacobschneider.engine.framework;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -11,8 +13,15 @@ import com.jacobschneider.engine.math.boundingvolumes.BoundCircle;
 import com.jacobschneider.engine.math.boundingvolumes.BoundNull;
 import com.jacobschneider.engine.math.boundingvolumes.BoundSphere;
 import com.jacobschneider.engine.math.boundingvolumes.BoundVolumePair;
+import com.jacobschneider.engine.math.boundingvolumes.OverlapStrategies.AABBAABBOverlap;
+import com.jacobschneider.engine.math.boundingvolumes.OverlapStrategies.AABBCircleOverlap;
+import com.jacobschneider.engine.math.boundingvolumes.OverlapStrategies.AABBOBBOverlap;
 import com.jacobschneider.engine.math.boundingvolumes.OverlapStrategies.CircleCircleOverlap;
+import com.jacobschneider.engine.math.boundingvolumes.OverlapStrategies.OBBCircleOverlap;
+import com.jacobschneider.engine.math.boundingvolumes.OverlapStrategies.OBBOBBOverlap;
+import com.jacobschneider.engine.math.boundingvolumes.OverlapStrategies.SphereAABBOverlap;
 import com.jacobschneider.engine.math.boundingvolumes.OverlapStrategies.SphereCircleOverlap;
+import com.jacobschneider.engine.math.boundingvolumes.OverlapStrategies.SphereOBBOverlap;
 import com.jacobschneider.engine.math.boundingvolumes.OverlapStrategies.SphereSphereOverlap;
 import com.jacobschneider.engine.physics.Body;
 import com.jacobschneider.engine.physics.BasicShape;
@@ -27,91 +36,184 @@ import com.jacobschneider.engine.physics.BasicShape;
  * a corresponding {@link OverlapStrategy} for all possible situations placed in {@link #putStrategy(OverlapStrategy)} an
  * {@link IllegalStateException} will be thrown as soon as the object is created.
  * 
+ * Every subclass is given a small integer type id the first time it is seen and the strategies are
+ * copied into a table indexed by type id, so an overlap test is two array lookups and the strategy itself.
+ * 
  * @author Jacob
  *
  */
 public abstract class BoundVolume {	
-	private static Map<BoundVolumePair, OverlapStrategy> strategyMap = new HashMap<BoundVolumePair, OverlapStrategy>();	
-	private static Set<Class<? extends BoundVolume>> implementations = new HashSet<Class<? extends BoundVolume>>(); // a set of all currently implemented BoundVolume subclasses
+	/**
+	 * Used for any pair that involves {@link BoundNull}.
+	 */
+	private static final OverlapStrategy ALWAYS_OVERLAP = new OverlapStrategy() {
+		@Override
+		public boolean testOverlap(BoundVolume vol1, BoundVolume vol2) {
+			return true;
+		}
+
+		@Override
+		public BoundVolumePair getVolumePair() {
+			return new BoundVolumePair(BoundNull.class, BoundNull.class);
+		}
+	};
+	
+	private static final Map<Class<? extends BoundVolume>, Integer> typeIds = new HashMap<Class<? extends BoundVolume>, Integer>(); // every class that has been given an id
+	private static final List<Class<? extends BoundVolume>> types = new ArrayList<Class<? extends BoundVolume>>(); // index is the type id
+	private static final Map<BoundVolumePair, OverlapStrategy> strategyMap = new HashMap<BoundVolumePair, OverlapStrategy>();
+	private static final Set<Class<? extends BoundVolume>> implementations = new HashSet<Class<? extends BoundVolume>>(); // a set of all instantiated BoundVolume subclasses
+	// strategyTable[i][j] tests a volume with type id i against a volume with type id j, in that order
+	// replaced, never modified, whenever a strategy or type is added
+	private static volatile OverlapStrategy[][] strategyTable = new OverlapStrategy[0][0];
 	
 	/**
 	 * Load all the default strategies onto strategyMap
 	 */
 	static {
+		typeId(BoundNull.class); // always type id 0
 		putStrategy(new SphereSphereOverlap());
 		putStrategy(new SphereCircleOverlap());
 		putStrategy(new CircleCircleOverlap());
+		putStrategy(new AABBAABBOverlap());
+		putStrategy(new SphereAABBOverlap());
+		putStrategy(new AABBCircleOverlap());
+		putStrategy(new OBBOBBOverlap());
+		putStrategy(new AABBOBBOverlap());
+		putStrategy(new SphereOBBOverlap());
+		putStrategy(new OBBCircleOverlap());
 	}	
 	
+	private final int typeId;
+	
 	/**
 	 * Places a new strategy into the strategy container.
 	 * In order for a bounding volume to be used is must have
 	 * all possible overlap strategies implemented and placed into this method.
 	 * @param strat The overlap strategy to be put in the container
 	 */
-	protected static void putStrategy(OverlapStrategy strat) {
-		strategyMap.put(strat.getVolumePair(), strat);
+	protected static synchronized void putStrategy(OverlapStrategy strat) {
+		BoundVolumePair pair = strat.getVolumePair();
+		typeId(pair.getFirst());
+		typeId(pair.getSecond());
+		strategyMap.put(pair, strat);
+		rebuildTable();
 	}
 	
 	/**
-	 * Retrieves the appropriate strategy to test overlap between the two
-	 * bounding volumes in pair parameter.
-	 * @param pair The pair of types you want to receive the strategy for
-	 * @return An {@link OverlapStrategy} object that should be used to test overlap.
+	 * Retrieves the type id of a class, creating a new id if the class has never been seen before.
 	 */
-	private static OverlapStrategy getStrategy(BoundVolumePair pair) {
-		return strategyMap.get(pair);
+	private static int typeId(Class<? extends BoundVolume> type) {
+		Integer id = typeIds.get(type);
+		if (id == null) {
+			id = types.size();
+			types.add(type);
+			typeIds.put(type, id);
+			rebuildTable();
+		}
+		return id;
 	}
 	
 	/**
-	 * Checks to make sure all possible {@link OverlapStrategy} implementations that could be possibly needed
-	 * are implemented.
+	 * Copies the strategy map into a new table indexed by type ids.
+	 * Strategies that were registered in the opposite order are wrapped so that the arguments are swapped.
 	 */
-	private static void checkStrategies() {
-		for (Class<? extends BoundVolume> i1 : implementations) {
-			if (i1 == BoundNull.class) {
-				continue;
-			}
-			for (Class<? extends BoundVolume> i2 : implementations) {
-				if (i2 == BoundNull.class) {
+	private static void rebuildTable() {
+		int n = types.size();
+		OverlapStrategy[][] table = new OverlapStrategy[n][n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				if (types.get(i) == BoundNull.class || types.get(j) == BoundNull.class) {
+					table[i][j] = ALWAYS_OVERLAP;
 					continue;
 				}
-				OverlapStrategy strat = getStrategy(new BoundVolumePair(i1, i2));
-				if (strat == null) {
-					throw new IllegalStateException("An overlap strategy between " + i1.getName() + " and "
-													+ i2.getName() + " has not been added to the strategy container. You can add a strategy" +
-															" using OverlapStrategyContainer.putStrategy");
+				OverlapStrategy strat = strategyMap.get(new BoundVolumePair(types.get(i), types.get(j)));
+				if (strat != null && strat.getVolumePair().getFirst() != types.get(i)) {
+					strat = new ReversedOverlap(strat);
 				}
-				
+				table[i][j] = strat;
 			}
 		}
-		
+		strategyTable = table;
+	}
+	
+	/**
+	 * Checks to make sure all possible {@link OverlapStrategy} implementations that could be possibly needed
+	 * by a newly instantiated class are implemented.
+	 */
+	private static void checkStrategies(Class<? extends BoundVolume> newType) {
+		checkStrategy(newType, newType);
+		for (Class<? extends BoundVolume> type : implementations) {
+			checkStrategy(newType, type);
+		}
+	}
+	
+	private static void checkStrategy(Class<? extends BoundVolume> newType, Class<? extends BoundVolume> type) {
+		if (strategyTable[typeIds.get(newType)][typeIds.get(type)] == null) {
+			throw new IllegalStateException("An overlap strategy between " + newType.getName() + " and "
+											+ type.getName() + " has not been added to the strategy container. You can add a strategy" +
+													" using BoundVolume.putStrategy");
+		}
 	}
 	
 	public BoundVolume() {
-		implementations.add(this.getClass());
-		checkStrategies();
+		Class<? extends BoundVolume> type = this.getClass();
+		synchronized (BoundVolume.class) {
+			this.typeId = typeId(type);
+			if (!implementations.contains(type)) {
+				checkStrategies(type); // only registered once it passes, so a failed type is checked again next time
+				implementations.add(type);
+			}
+		}
 	}
 	
 	/**
 	 * Tests if this volume overlaps another volume.
-	 * Any test involving {@link BoundNull} returns false.
+	 * Any test involving {@link BoundNull} returns true.
 	 * @param other The volume to test against.
 	 * @return True if volumes intersect, otherwise false
 	 */
 	public final boolean testOverlap(BoundVolume other) {
-		if (this.getClass() == BoundNull.class || other.getClass() == BoundNull.class) {
-			return true;
-		}
-		OverlapStrategy strat = getStrategy(new BoundVolumePair(this, other));
+		OverlapStrategy strat = strategyTable[typeId][other.typeId];
 		if (strat == null) {
 			throw new IllegalStateException("An overlap strategy between " + this.getClass().getName() + " and "
 											+ other.getClass().getName() + " has not been added to the strategy container. You can add a strategy" +
-													" using OverlapStrategyContainer.putStrategy");
+													" using BoundVolume.putStrategy");
 		}
 		return strat.testOverlap(this, other);
 	}
 	
+	/**
+	 * Runs a strategy with its arguments swapped.
+	 */
+	private static class ReversedOverlap implements OverlapStrategy {
+		private final OverlapStrategy strat;
+		
+		ReversedOverlap(OverlapStrategy strat) {
+			this.strat = strat;
+		}
+
+		@Override
+		public boolean testOverlap(BoundVolume vol1, BoundVolume vol2) {
+			return strat.testOverlap(vol2, vol1);
+		}
+
+		@Override
+		public BoundVolumePair getVolumePair() {
+			BoundVolumePair pair = strat.getVolumePair();
+			return new BoundVolumePair(pair.getSecond(), pair.getFirst());
+		}
+	}
+	
+	/**
+	 * Finds a world space axis aligned box that contains this volume. It does not have to be the smallest such box.
+	 * Used by broadphase structures that sort bodies by position before any overlap strategy is run.
+	 * The default implementation returns null, which means the volume is treated as unbounded and is tested against everything.
+	 * @return the minimum and maximum corners of the box, or null if this volume is unbounded
+	 */
+	public Pair<Vector3, Vector3> getEnclosingBox() {
+		return null;
+	}
+	
 	/**
 	 * Updates the position and orientation of this bounding volume.
 	 * The positions is defined as the center of mass (origin) of the volume.
@@ -0,0 +1,29 @@
+package com.jacobschneider.engine.framework;
+
+import java.util.List;
+
+import com.jacobschneider.engine.physics.CollisionAlgorithms;
+import com.jacobschneider.engine.physics.CollisionInterface;
+
+/**
+ * An algorithm that finds the contacts between two types of {@link Shape}.
+ * Implementations should be stateless and registered with
+ * {@link CollisionAlgorithms#putAlgorithm(Class, Class, CollisionAlgorithm)}.
+ *
+ * @author Jacob
+ *
+ */
+public interface CollisionAlgorithm {
+	/**
+	 * Detects all CollisionInterfaces (points and normals) of collisions between two shapes.
+	 * When this is called by the engine the shapes are guaranteed to be instances of the classes the
+	 * algorithm was registered with, in the same order.
+	 * @param a The first shape.
+	 * @param b The second shape.
+	 * @param aBody The {@link PhysicsBody} attached to the first shape's body
+	 * @param bBody The {@link PhysicsBody} attached to the second shape's body
+	 * @return A list of collisions in world space with normals pointing away from the first shape.
+	 */
+	public List<CollisionInterface> collisionDetect(Shape a, Shape b, PhysicsBody aBody, PhysicsBody bBody);
+
+}
@@ -0,0 +1,27 @@
+package com.jacobschneider.engine.framework;
+
+import com.jacobschneider.engine.math.Vector3;
+
+/**
+ * A {@link Shape} that is convex and can be described by a support mapping.
+ * Two convex shapes can be tested against each other in near constant time
+ * regardless of how many primitives they are made of.
+ * 
+ * @author Jacob
+ *
+ */
+public interface ConvexShape extends Shape {
+	/**
+	 * The point of this shape that is furthest in a certain direction.
+	 * @param dir the direction in body space, does not need to be normalized
+	 * @return the furthest point in body space
+	 */
+	public Vector3 support(Vector3 dir);
+	
+	/**
+	 * A point that is strictly inside this shape. Usually the center of mass.
+	 * @return a point inside the shape in body space
+	 */
+	public Vector3 getCenter();
+
+}
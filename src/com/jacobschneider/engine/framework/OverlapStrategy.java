@@ -15,8 +15,8 @@ import com.jacobschneider.engine.math.boundingvolumes.BoundVolumePair;
 public interface OverlapStrategy {
 	/**
 	 * Determines whether two bounding volumes intersect. When this is called by the engine the arguments
-	 * are guaranteed to match the types returned by {@link #getVolumePair()} The order the arguments are input
-	 * do not matter (reflexive).
+	 * are guaranteed to match the types returned by {@link #getVolumePair()} in the same order, so implementations
+	 * can cast them without checking.
 	 * 
 	 * @param vol1 - First volume to compare.
 	 * @param vol2 - Second volume to compare.
@@ -21,6 +21,47 @@ public interface PhysicsBody {
 	 */
 	public static enum Axis {X_AXIS, Y_AXIS, Z_AXIS};
 	
+	/**
+	 * The methods a body can use to advance its state by one physics frame.
+	 * Forces and torques are held constant over a frame by all of them.
+	 * @author Jacob
+	 *
+	 */
+	public static enum Integrator {
+		/**
+		 * Moves the body with the velocities from the start of the frame and then updates the momentums.
+		 * The cheapest method but it gains energy, so it needs small frames.
+		 */
+		EXPLICIT_EULER,
+		/**
+		 * Updates the momentums first and moves the body with the new velocities.
+		 * Costs the same as {@link #EXPLICIT_EULER} but is symplectic, so orbits and springs stay bounded.
+		 */
+		SEMI_IMPLICIT_EULER,
+		/**
+		 * {@link #SEMI_IMPLICIT_EULER} with the orientation rotated exactly by the angular velocity
+		 * instead of adding the quaternion derivative and renormalizing. Better for fast spinning bodies.
+		 */
+		EXPONENTIAL_MAP,
+		/**
+		 * Second order. Moves the body with the average of the old and new velocities and rotates it with
+		 * the angular velocity at the middle of the frame.
+		 */
+		VELOCITY_VERLET,
+		/**
+		 * Fourth order Runge-Kutta over position, orientation and both momentums.
+		 * Four times the work of {@link #EXPLICIT_EULER} per frame but stays accurate with much larger frames.
+		 */
+		RK4,
+		/**
+		 * {@link #SEMI_IMPLICIT_EULER} for the motion of the center of mass. The body is rotated with an angular
+		 * velocity found by one Newton step on the implicit gyroscopic equation in body space.
+		 * Angular momentum is conserved and rotational energy never grows, so spinning bodies with uneven inertia
+		 * stay stable with large frames and settle into a spin around their axis of largest inertia.
+		 */
+		IMPLICIT_GYROSCOPIC
+	};
+	
 	// the setters
 	/**
 	 * Enacts an instantaneous impulse on this body. Collisions use this method to instantaneously change
@@ -30,6 +71,13 @@ public interface PhysicsBody {
 	 */
 	public void enactImpulse(Vector3 impulse, Vector3 relativePos);
 
+	/**
+	 * Enacts an instantaneous angular impulse on this body, changing only its angular momentum.
+	 * Joints use this method to stop bodies from rotating relative to each other.
+	 * @param angularImpulse instantaneous torque with units Torque*Time
+	 */
+	public void enactAngularImpulse(Vector3 angularImpulse);
+
 	/**
 	 * Adds a permanent force and torque to this body
 	 * @param force Force to be added
@@ -38,13 +86,27 @@ public interface PhysicsBody {
 	public void addInputs(Vector3 force, Vector3 torque);
 	
 	/**
-	 * Adds a temporary force and torque to this body for a certain duration.
+	 * Adds a temporary force and torque to this body for a certain duration of simulation time.
+	 * Thrusts are queued, so several thrusts can act at once and their forces add up. A thrust shorter than a
+	 * physics frame still gives its full impulse. Can be called from any thread.
+	 * Use {@link #holdThrust(Object, Vector3, Vector3, float)} for input that repeats while it is held.
 	 * @param force force to be exerted
 	 * @param torque torque to be exerted
-	 * @param duration the amount of time the force/torque is exerted for
+	 * @param duration the amount of simulation time the force/torque is exerted for
 	 */
 	public void thrustInputs(Vector3 force, Vector3 torque, float duration);
 	
+	/**
+	 * Adds a temporary force and torque like {@link #thrustInputs(Vector3, Vector3, float)}, except that a body only
+	 * has one thrust from each source. A new thrust from a source replaces the one still acting and restarts the duration,
+	 * so a key that repeats while it is held pushes with a steady force. Can be called from any thread.
+	 * @param source identifies the thrust, for example the input action that made it
+	 * @param force force to be exerted
+	 * @param torque torque to be exerted
+	 * @param duration the amount of simulation time the force/torque is exerted for after the last call from this source
+	 */
+	public void holdThrust(Object source, Vector3 force, Vector3 torque, float duration);
+	
 	/**
 	 * Constraints the position of this body to a {@link Manifold}. The body must
 	 * initially be on the manifold and the constraint will ensure that the velocity
@@ -54,6 +116,17 @@ public interface PhysicsBody {
 	 */
 	public void constrainBody(Manifold constraint);
 	
+	/**
+	 * Changes how this body advances its state each physics frame.
+	 * @param integrator the integrator to use
+	 */
+	public void setIntegrator(Integrator integrator);
+	
+	/**
+	 * @return the integrator this body uses
+	 */
+	public Integrator getIntegrator();
+	
 	/**
 	 * Updates the state of this body by one physics frame.
 	 * @param deltaTime Time since last physics frame
@@ -2,6 +2,7 @@ package com.jacobschneider.engine.framework;
 
 import java.util.List;
 
+import com.jacobschneider.engine.physics.CollisionAlgorithms;
 import com.jacobschneider.engine.physics.CollisionInterface;
 
 /**
@@ -13,6 +14,10 @@ import com.jacobschneider.engine.physics.CollisionInterface;
 public interface Shape {
 	/**
 	 * Detects all CollisionInterfaces (points and normals) of collisions between this shape and another shape.
+	 * The engine finds collisions through {@link CollisionAlgorithms}. When no {@link CollisionAlgorithm} is registered
+	 * for a pair of shapes the engine calls this method on the first shape. A shape with no algorithm of its own can
+	 * return {@link CollisionAlgorithms#collisionDetect(Shape, Shape, PhysicsBody, PhysicsBody)} to hand the pair back,
+	 * and the other shape is then asked in the same way before the segments of both shapes are intersected.
 	 * @param other The other shape.
 	 * @param thisBody The {@link PhysicsBody} attached to this shape's body
 	 * @param otherBody The {@link PhysicsBody} attached to the other shape's body
@@ -35,8 +35,8 @@ public interface Universe {
 	public void addScalerPotential(ScalarField s);
 
 	/**
-	 * Adds a scaler potential to a {@link Body} in the universe. If the body does not exist
-	 * in the universe throws an {@link IllegalArgumentException}. The origin of the scaler field is updated
+	 * Adds a scaler potential to a {@link Body} in the universe. Each implementation says what happens when the body
+	 * is not in the universe. The origin of the scaler field is updated
 	 * to align with the body's position before each frame. If a body already contains a potential the original one
 	 * will be overwritten.
 	 * @param b the body to attach the scaler potential to
@@ -17,6 +17,18 @@ public interface VectorField {
 	 */
 	public Vector3 getValue(Vector3 point);
 	
+	/**
+	 * Evaluates this vector field at many points at once and adds the results to an array.
+	 * Points and results are packed as consecutive x, y, z triples, so point i is at index 3i.
+	 * The field is evaluated at each packed point minus origin.
+	 * @param points packed points in Cartesian coordinates
+	 * @param origin subtracted from every point before the field is evaluated
+	 * @param from index of the first point to evaluate
+	 * @param to index one past the last point to evaluate
+	 * @param out packed vectors that each result is added to
+	 */
+	public void addValues(double[] points, Vector3 origin, int from, int to, double[] out);
+	
 	/**
 	 * Evaluates the curl of this vector field at a certain position in Cartesian coordinates
 	 * in 3D space
@@ -10,7 +10,8 @@ import com.jacobschneider.engine.physics.Body;
  * A world frame body controller implementation.
  * Handles the main translate and rotate {@link EngineAction}s and exerts
  * temporary forces and torques on a body. All forces and torques 
- * are independent of the bodies current orientation in space.
+ * are independent of the bodies current orientation in space. Each action holds one thrust,
+ * so a key that repeats while it is held does not push any harder.
  * For example no matter how the body is orientated a {@link EngineAction#TRANSLATE_UP}
  * commands will result in a force in the worlds positive z direction.
  * 
@@ -39,40 +40,40 @@ public final class BasicBodyController implements InputListener {
 	public boolean receiveInput(EngineAction action) {		
 		switch (action) {
 			case TRANSLATE_UP:
-				b.thrustInputs(Vector3.k.multScaler(TRANSLATION_SENSITIVITY), Vector3.zero, 0.1f);
+				b.holdThrust(action, Vector3.k.multScaler(TRANSLATION_SENSITIVITY), Vector3.zero, 0.1f);
 				return true;
 			case TRANSLATE_DOWN:
-				b.thrustInputs(Vector3.k.multScaler(-TRANSLATION_SENSITIVITY), Vector3.zero, 0.1f);
+				b.holdThrust(action, Vector3.k.multScaler(-TRANSLATION_SENSITIVITY), Vector3.zero, 0.1f);
 				return true;
 			case TRANSLATE_BACKWARD:
-				b.thrustInputs(Vector3.j.multScaler(-TRANSLATION_SENSITIVITY), Vector3.zero, 0.1f);
+				b.holdThrust(action, Vector3.j.multScaler(-TRANSLATION_SENSITIVITY), Vector3.zero, 0.1f);
 				return true;
 			case TRANSLATE_FORWARD:
-				b.thrustInputs(Vector3.j.multScaler(TRANSLATION_SENSITIVITY), Vector3.zero, 0.1f);
+				b.holdThrust(action, Vector3.j.multScaler(TRANSLATION_SENSITIVITY), Vector3.zero, 0.1f);
 				return true;
 			case TRANSLATE_LEFT:
-				b.thrustInputs(Vector3.i.multScaler(-TRANSLATION_SENSITIVITY), Vector3.zero, 0.1f);
+				b.holdThrust(action, Vector3.i.multScaler(-TRANSLATION_SENSITIVITY), Vector3.zero, 0.1f);
 				return true;
 			case TRANSLATE_RIGHT:
-				b.thrustInputs(Vector3.i.multScaler(TRANSLATION_SENSITIVITY), Vector3.zero, 0.1f);
+				b.holdThrust(action, Vector3.i.multScaler(TRANSLATION_SENSITIVITY), Vector3.zero, 0.1f);
 				return true;
 			case PITCH_DOWN:			
-				b.thrustInputs(Vector3.zero, Vector3.i.multScaler(-ROTATION_SENSITIVITY), 0.1f);
+				b.holdThrust(action, Vector3.zero, Vector3.i.multScaler(-ROTATION_SENSITIVITY), 0.1f);
 				return true;
 			case PITCH_UP:
-				b.thrustInputs(Vector3.zero, Vector3.i.multScaler(ROTATION_SENSITIVITY), 0.1f);
+				b.holdThrust(action, Vector3.zero, Vector3.i.multScaler(ROTATION_SENSITIVITY), 0.1f);
 				return true;
 			case YAW_LEFT:
-				b.thrustInputs(Vector3.zero, Vector3.k.multScaler(ROTATION_SENSITIVITY), 0.1f);
+				b.holdThrust(action, Vector3.zero, Vector3.k.multScaler(ROTATION_SENSITIVITY), 0.1f);
 				return true;
 			case YAW_RIGHT:
-				b.thrustInputs(Vector3.zero, Vector3.k.multScaler(-ROTATION_SENSITIVITY), 0.1f);
+				b.holdThrust(action, Vector3.zero, Vector3.k.multScaler(-ROTATION_SENSITIVITY), 0.1f);
 				return true;
 			case ROLL_LEFT:
-				b.thrustInputs(Vector3.zero, Vector3.j.multScaler(-ROTATION_SENSITIVITY), 0.1f);
+				b.holdThrust(action, Vector3.zero, Vector3.j.multScaler(-ROTATION_SENSITIVITY), 0.1f);
 				return true;
 			case ROLL_RIGHT:
-				b.thrustInputs(Vector3.zero, Vector3.j.multScaler(ROTATION_SENSITIVITY), 0.1f);
+				b.holdThrust(action, Vector3.zero, Vector3.j.multScaler(ROTATION_SENSITIVITY), 0.1f);
 				return true;
 			default:
 				return false;
@@ -53,6 +53,15 @@ public final class Matrix3 {
 		return new Matrix3(xx, 0, 0, 0, yy, 0, 0, 0, zz);
 	}
 	
+	/**
+	 * The cross product matrix of a vector. Multiplying it by a vector b is the same as v cross b.
+	 * @param v The vector on the left of the cross product
+	 * @return The skew symmetric matrix of v
+	 */
+	public static Matrix3 skew(Vector3 v) {
+		return new Matrix3(0, -v.z, v.y, v.z, 0, -v.x, -v.y, v.x, 0);
+	}
+	
 	public static Matrix3 fromColArray(double[] colArr) {
 		return new Matrix3(colArr[0], colArr[3], colArr[6], colArr[1], colArr[4], colArr[7], colArr[2], colArr[5], colArr[8]);
 	}
@@ -176,7 +185,9 @@ public final class Matrix3 {
 	 * @return The resulting matrix
 	 */
 	public Vector3 vectMultLeft(Vector3 lhs) {
-		throw new IllegalStateException("Unimplemented");
+		return new Vector3(lhs.x * this.xx + lhs.y * this.yx + lhs.z * this.zx,
+						   lhs.x * this.xy + lhs.y * this.yy + lhs.z * this.zy,
+						   lhs.x * this.xz + lhs.y * this.yz + lhs.z * this.zz);
 	}
 	
 	/**
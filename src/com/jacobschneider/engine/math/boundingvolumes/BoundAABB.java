@@ -0,0 +1,61 @@
+package com.jacobschneider.engine.math.boundingvolumes;
+
+import com.jacobschneider.engine.framework.BoundVolume;
+import com.jacobschneider.engine.framework.Pair;
+import com.jacobschneider.engine.math.Matrix3;
+import com.jacobschneider.engine.math.Quaternion;
+import com.jacobschneider.engine.math.Vector3;
+
+/**
+ * An axis aligned bounding box in world space.
+ * The box is defined in body space and every time the body moves the world box is
+ * recomputed as the smallest axis aligned box that encloses the rotated body box.
+ *
+ * @author Jacob
+ *
+ */
+public class BoundAABB extends BoundVolume {
+	private final Vector3 offset; // center of the box in body space
+	private final Vector3 halfExtentsBody; // half extents along the body axes
+
+	private Vector3 center; // world space
+	private Vector3 halfExtents; // along the world axes
+
+	/**
+	 * Creates an axis aligned bounding box.
+	 * @param offset the center of the box in body space
+	 * @param halfExtents half the size of the box along each body axis
+	 */
+	public BoundAABB(Vector3 offset, Vector3 halfExtents) {
+		if (halfExtents.x < 0 || halfExtents.y < 0 || halfExtents.z < 0) {
+			throw new IllegalArgumentException("Half extents must not be negative");
+		}
+		this.offset = offset;
+		this.halfExtentsBody = halfExtents;
+		updateState(Vector3.zero, Quaternion.identity);
+	}
+
+	@Override
+	public void updateState(Vector3 x, Quaternion q) {
+		Matrix3 r = q.toMatrix();
+		Vector3 h = halfExtentsBody;
+		this.center = x.add(offset.multMatrixLeft(r));
+		this.halfExtents = new Vector3(Math.abs(r.xx) * h.x + Math.abs(r.xy) * h.y + Math.abs(r.xz) * h.z,
+									   Math.abs(r.yx) * h.x + Math.abs(r.yy) * h.y + Math.abs(r.yz) * h.z,
+									   Math.abs(r.zx) * h.x + Math.abs(r.zy) * h.y + Math.abs(r.zz) * h.z);
+	}
+
+	@Override
+	public Pair<Vector3, Vector3> getEnclosingBox() {
+		return Pair.create(center.subtract(halfExtents), center.add(halfExtents));
+	}
+
+	Vector3 getCenter() {
+		return center;
+	}
+
+	Vector3 getHalfExtents() {
+		return halfExtents;
+	}
+
+}
@@ -1,42 +1,101 @@
 package com.jacobschneider.engine.math.boundingvolumes;
 
 import com.jacobschneider.engine.framework.BoundVolume;
+import com.jacobschneider.engine.framework.Pair;
 import com.jacobschneider.engine.math.Quaternion;
 import com.jacobschneider.engine.math.Vector3;
 
-
+/**
+ * A flat bounding disk. The normal of the disk is fixed in body space and rotates with the body.
+ *
+ * @author Jacob
+ *
+ */
 public class BoundCircle extends BoundVolume {
 	private final double radius;
-	private Vector3 normal;
+	private Vector3 normalBody; // unit normal in body space
+	private Vector3 normal; // unit normal in world space
 	private Vector3 center;
-	
-	
+	private Quaternion q = Quaternion.identity;
+	private boolean normalInWorld; // true until the first update turns the world space normal into body space
+
+	/**
+	 * Creates a bounding disk from a normal in world space. The normal is taken to be the normal of the disk
+	 * at the body's starting orientation, from the first {@link #updateState(Vector3, Quaternion)}, and turns
+	 * with the body after that.
+	 * @param normalDir the normal of the disk in world space
+	 * @param centerPos initial center of the disk in world space
+	 * @param planeRadius radius of the disk
+	 */
 	public BoundCircle(Vector3 normalDir, Vector3 centerPos, double planeRadius) {
+		this(normalDir, centerPos, planeRadius, true);
+	}
+
+	private BoundCircle(Vector3 normalDir, Vector3 centerPos, double planeRadius, boolean normalInWorld) {
 		this.radius = planeRadius;
-		this.normal = normalDir;
+		this.normalBody = normalDir.normalize();
+		this.normal = normalBody;
 		this.center = centerPos;
-	}	
+		this.normalInWorld = normalInWorld;
+	}
 
+	/**
+	 * Creates a bounding disk from a normal in body space.
+	 * @param normalDir the normal of the disk in body space
+	 * @param centerPos initial center of the disk in world space
+	 * @param planeRadius radius of the disk
+	 * @return the bounding disk
+	 */
+	public static BoundCircle withBodyNormal(Vector3 normalDir, Vector3 centerPos, double planeRadius) {
+		return new BoundCircle(normalDir, centerPos, planeRadius, false);
+	}
 
 	@Override
 	public void updateState(Vector3 x, Quaternion q) {
-		this.center = x;			
+		this.center = x;
+		this.q = q;
+		if (normalInWorld) {
+			normalBody = toBodySpace(normalBody);
+			normalInWorld = false;
+		}
+		this.normal = normalBody.multMatrixLeft(q.toMatrix());
 	}
-	
+
+	/**
+	 * Changes the normal of the disk.
+	 * @param normal the new normal in world space, it turns with the body after this
+	 */
 	public void updateDir(Vector3 normal) {
-		this.normal = normal;
+		this.normal = normal.normalize();
+		this.normalBody = normalInWorld ? this.normal : toBodySpace(this.normal);
+	}
+
+	private Vector3 toBodySpace(Vector3 worldNormal) {
+		return worldNormal.multMatrixLeft(q.toMatrix().transpose());
+	}
+
+	@Override
+	public Pair<Vector3, Vector3> getEnclosingBox() {
+		// a disk reaches r * sin(angle between the normal and the axis) along each world axis
+		Vector3 extent = new Vector3(radius * Math.sqrt(Math.max(0, 1 - normal.x * normal.x)),
+									 radius * Math.sqrt(Math.max(0, 1 - normal.y * normal.y)),
+									 radius * Math.sqrt(Math.max(0, 1 - normal.z * normal.z)));
+		return Pair.create(center.subtract(extent), center.add(extent));
 	}
 
 	public Vector3 getCenter() {
 		return center;
 	}
 
+	/**
+	 * @return the unit normal of the disk in world space
+	 */
 	public Vector3 getNormal() {
 		return normal;
 	}
-	
+
 	public double getRadius() {
 		return radius;
 	}
-	
+
 }
@@ -0,0 +1,84 @@
+package com.jacobschneider.engine.math.boundingvolumes;
+
+import com.jacobschneider.engine.framework.BoundVolume;
+import com.jacobschneider.engine.framework.Pair;
+import com.jacobschneider.engine.math.Matrix3;
+import com.jacobschneider.engine.math.Quaternion;
+import com.jacobschneider.engine.math.Vector3;
+
+/**
+ * An oriented bounding box. The box is fixed in body space and rotates with the body.
+ *
+ * @author Jacob
+ *
+ */
+public class BoundOBB extends BoundVolume {
+	private final Vector3 offset; // center of the box in body space
+	private final Vector3[] axesBody; // unit axes of the box in body space
+	private final double[] halfExtents;
+
+	private Vector3 center; // world space
+	private final Vector3[] axes = new Vector3[3]; // world space
+
+	/**
+	 * Creates an oriented bounding box aligned with the body axes.
+	 * @param offset the center of the box in body space
+	 * @param halfExtents half the size of the box along each body axis
+	 */
+	public BoundOBB(Vector3 offset, Vector3 halfExtents) {
+		this(offset, Matrix3.IDENTITY, halfExtents);
+	}
+
+	/**
+	 * Creates an oriented bounding box.
+	 * @param offset the center of the box in body space
+	 * @param orientation an orthogonal matrix whose columns are the axes of the box in body space
+	 * @param halfExtents half the size of the box along each of its own axes
+	 */
+	public BoundOBB(Vector3 offset, Matrix3 orientation, Vector3 halfExtents) {
+		if (!orientation.isOrthoganol()) {
+			throw new IllegalArgumentException("orientation must be orthogonal");
+		}
+		if (halfExtents.x < 0 || halfExtents.y < 0 || halfExtents.z < 0) {
+			throw new IllegalArgumentException("Half extents must not be negative");
+		}
+		this.offset = offset;
+		this.axesBody = orientation.toColVectors().toArray(new Vector3[3]);
+		this.halfExtents = halfExtents.toArray();
+		updateState(Vector3.zero, Quaternion.identity);
+	}
+
+	@Override
+	public void updateState(Vector3 x, Quaternion q) {
+		Matrix3 r = q.toMatrix();
+		this.center = x.add(offset.multMatrixLeft(r));
+		for (int i = 0; i < 3; i++) {
+			axes[i] = axesBody[i].multMatrixLeft(r);
+		}
+	}
+
+	@Override
+	public Pair<Vector3, Vector3> getEnclosingBox() {
+		double ex = 0, ey = 0, ez = 0;
+		for (int i = 0; i < 3; i++) {
+			ex += Math.abs(axes[i].x) * halfExtents[i];
+			ey += Math.abs(axes[i].y) * halfExtents[i];
+			ez += Math.abs(axes[i].z) * halfExtents[i];
+		}
+		Vector3 extent = new Vector3(ex, ey, ez);
+		return Pair.create(center.subtract(extent), center.add(extent));
+	}
+
+	Vector3 getCenter() {
+		return center;
+	}
+
+	Vector3[] getAxes() {
+		return axes;
+	}
+
+	double[] getHalfExtents() {
+		return halfExtents;
+	}
+
+}
@@ -1,16 +1,44 @@
 package com.jacobschneider.engine.math.boundingvolumes;
 
 import com.jacobschneider.engine.framework.BoundVolume;
+import com.jacobschneider.engine.framework.Pair;
 import com.jacobschneider.engine.math.Quaternion;
 import com.jacobschneider.engine.math.Vector3;
 
+/**
+ * A bounding sphere. The center of the sphere can be offset from the origin of the body.
+ * 
+ * @author Jacob
+ *
+ */
 public class BoundSphere extends BoundVolume {
 	private Vector3 c; // center
 	private double r; // radius
+	private final Vector3 offset; // center in body space
 	
+	/**
+	 * Creates a bounding sphere centered on the origin of the body.
+	 * @param c initial center of the sphere in world space
+	 * @param r radius of the sphere
+	 */
 	public BoundSphere(Vector3 c, double r) {
+		this(c, r, Vector3.zero);
+	}
+	
+	private BoundSphere(Vector3 c, double r, Vector3 offset) {
 		this.c = c;
 		this.r = r;
+		this.offset = offset;
+	}
+	
+	/**
+	 * Creates a bounding sphere whose center is offset from the origin of the body.
+	 * @param r radius of the sphere
+	 * @param offset center of the sphere in body space
+	 * @return the bounding sphere
+	 */
+	public static BoundSphere withOffset(double r, Vector3 offset) {
+		return new BoundSphere(offset, r, offset);
 	}
 	
 	Vector3 getCenter() {
@@ -21,9 +49,18 @@ public class BoundSphere extends BoundVolume {
 		return r;
 	}
 
+	@Override
+	public Pair<Vector3, Vector3> getEnclosingBox() {
+		Vector3 extent = new Vector3(r, r, r);
+		return Pair.create(c.subtract(extent), c.add(extent));
+	}
+
 	@Override
 	public void updateState(Vector3 x, Quaternion q) {
-		this.c = x;
-		
+		if (offset.equals(Vector3.zero)) {
+			this.c = x;
+		} else {
+			this.c = x.add(offset.multMatrixLeft(q.toMatrix()));
+		}
 	}
 }
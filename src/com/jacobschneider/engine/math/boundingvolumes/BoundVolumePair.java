@@ -4,6 +4,7 @@ import com.jacobschneider.engine.framework.BoundVolume;
 
 /**
  * This class represents an unordered pair of BoundVolume types.
+ * The order the types were given in is still available through {@link #getFirst()} and {@link #getSecond()}.
  * This is used so the framework can determine which overlap test strategy to invoke.
  * 
  * @author Jacob
@@ -28,6 +29,20 @@ public class BoundVolumePair {
 		this.b = b;
 	}
 	
+	/**
+	 * @return the first type of this pair
+	 */
+	public Class<? extends BoundVolume> getFirst() {
+		return a;
+	}
+	
+	/**
+	 * @return the second type of this pair
+	 */
+	public Class<? extends BoundVolume> getSecond() {
+		return b;
+	}
+	
 	@Override
 	public boolean equals(Object o) {
 		if (!(o instanceof BoundVolumePair)) {
@@ -0,0 +1,335 @@
+package com.jacobschneider.engine.math.boundingvolumes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jacobschneider.engine.framework.BoundVolume;
+import com.jacobschneider.engine.framework.Primitive;
+import com.jacobschneider.engine.framework.Segment;
+import com.jacobschneider.engine.framework.Shape;
+import com.jacobschneider.engine.math.Matrix3;
+import com.jacobschneider.engine.math.Vector3;
+import com.jacobschneider.engine.math.geometry.Primitives.Circle;
+import com.jacobschneider.engine.math.geometry.Primitives.OpenCylinder;
+import com.jacobschneider.engine.math.geometry.Primitives.Sphere;
+import com.jacobschneider.engine.math.geometry.Primitives.Triangle;
+
+/**
+ * Static factory methods that fit bounding volumes tightly around a {@link Shape}.
+ * The extents of spheres, circles and cylinders are calculated exactly instead of
+ * from their segments. Any other primitive is bounded by the end points of its segments.
+ *
+ * @author Jacob
+ *
+ */
+public class BoundVolumes {
+	private static final int MAX_JACOBI_SWEEPS = 50;
+
+	private BoundVolumes() {}
+
+	/**
+	 * Fits the tightest bounding volume this class can create around a shape.
+	 * Both a sphere and an oriented box are fitted and the one with the smaller volume is returned.
+	 * @param shape the shape in body space
+	 * @return the fitted volume, or a {@link BoundNull} if the shape has no primitives
+	 */
+	public static BoundVolume fit(Shape shape) {
+		if (shape.getPrimitives().length == 0) {
+			return new BoundNull();
+		}
+		BoundSphere sphere = sphere(shape);
+		BoundOBB obb = obb(shape);
+		double r = sphere.getRadius();
+		double[] h = obb.getHalfExtents();
+		double sphereVolume = 4.0 / 3.0 * Math.PI * r * r * r;
+		double obbVolume = 8 * h[0] * h[1] * h[2];
+		return sphereVolume < obbVolume ? sphere : obb;
+	}
+	
+	/**
+	 * Fits a bounding sphere around a shape. The sphere is found with Ritter's algorithm on the vertices of
+	 * the shape and then grown until it contains every primitive exactly.
+	 * @param shape the shape in body space
+	 * @return the fitted {@link BoundSphere}
+	 */
+	public static BoundSphere sphere(Shape shape) {
+		List<Vector3> verts = vertices(shape);
+		for (Primitive p : shape.getPrimitives()) {
+			if (p instanceof Sphere) {
+				verts.add(((Sphere) p).getCenter());
+			}
+		}
+		if (verts.isEmpty()) {
+			throw new IllegalArgumentException("Cannot fit a sphere to a shape without vertices");
+		}
+		
+		// Ritter: start with the sphere through two distant points and grow it to contain every point
+		Vector3 x = verts.get(0);
+		Vector3 y = farthest(verts, x);
+		Vector3 z = farthest(verts, y);
+		Vector3 c = y.add(z).multScaler(0.5);
+		double r = y.distBetween(z) / 2;
+		for (Vector3 p : verts) {
+			double d = p.distBetween(c);
+			if (d > r) {
+				double newR = (r + d) / 2;
+				c = c.add(p.subtract(c).multScaler((newR - r) / d));
+				r = newR;
+			}
+		}
+		
+		// curved primitives can bulge past their vertices
+		r = Math.max(r, farthestDistance(shape, c));
+		
+		// Ritter is not optimal for symmetric shapes, the center of the bounding box often does better
+		Vector3[] axes = new Vector3[] {Vector3.i, Vector3.j, Vector3.k};
+		Vector3 boxCenter = center(axes, extents(shape, axes));
+		double boxR = farthestDistance(shape, boxCenter);
+		if (boxR < r) {
+			return BoundSphere.withOffset(boxR, boxCenter);
+		}
+		return BoundSphere.withOffset(r, c);
+	}
+
+	/**
+	 * Fits an axis aligned bounding box around a shape. The box is the tightest one along the body axes,
+	 * and each {@link BoundAABB#updateState(Vector3, com.jacobschneider.engine.math.Quaternion)} re-bounds that box along the world axes,
+	 * so it is only tight while the body is not rotated.
+	 * @param shape the shape in body space
+	 * @return the {@link BoundAABB} of the shape's extents along the body axes
+	 */
+	public static BoundAABB aabb(Shape shape) {
+		Vector3[] axes = new Vector3[] {Vector3.i, Vector3.j, Vector3.k};
+		double[][] ext = extents(shape, axes);
+		return new BoundAABB(center(axes, ext), halfExtents(ext));
+	}
+
+	/**
+	 * Fits an oriented bounding box around a shape. The axes of the box are the principal axes of
+	 * the vertices of the shape unless a box aligned with the body axes is smaller.
+	 * @param shape the shape in body space
+	 * @return the fitted {@link BoundOBB}
+	 */
+	public static BoundOBB obb(Shape shape) {
+		Vector3[] bodyAxes = new Vector3[] {Vector3.i, Vector3.j, Vector3.k};
+		Vector3[] principal = principalAxes(vertices(shape));
+		double[][] bodyExt = extents(shape, bodyAxes);
+		double[][] principalExt = extents(shape, principal);
+		if (volume(bodyExt) <= volume(principalExt)) {
+			return new BoundOBB(center(bodyAxes, bodyExt), halfExtents(bodyExt));
+		}
+		Matrix3 orientation = Matrix3.fromColVectors(principal[0], principal[1], principal[2]);
+		return new BoundOBB(center(principal, principalExt), orientation, halfExtents(principalExt));
+	}
+
+	/**
+	 * The minimum and maximum of a shape along each axis.
+	 * @return ext[i][0] is the minimum and ext[i][1] is the maximum along axes[i]
+	 */
+	static double[][] extents(Shape shape, Vector3[] axes) {
+		double[][] ext = new double[axes.length][];
+		for (int i = 0; i < axes.length; i++) {
+			ext[i] = new double[] {Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+			for (Primitive p : shape.getPrimitives()) {
+				extent(p, axes[i], ext[i]);
+			}
+		}
+		return ext;
+	}
+
+	/**
+	 * Grows an interval to contain the projection of a primitive onto a unit axis.
+	 */
+	private static void extent(Primitive p, Vector3 axis, double[] ext) {
+		if (p instanceof Triangle) {
+			Triangle t = (Triangle) p;
+			include(ext, t.a.dot(axis));
+			include(ext, t.b.dot(axis));
+			include(ext, t.c.dot(axis));
+		} else if (p instanceof Sphere) {
+			Sphere s = (Sphere) p;
+			double c = s.getCenter().dot(axis);
+			include(ext, c - s.getRadius());
+			include(ext, c + s.getRadius());
+		} else if (p instanceof Circle) {
+			Circle circle = (Circle) p;
+			double c = circle.getCenter().dot(axis);
+			double r = circle.getRadius() * perp(circle.getNormal().normalize(), axis);
+			include(ext, c - r);
+			include(ext, c + r);
+		} else if (p instanceof OpenCylinder) {
+			OpenCylinder cyl = (OpenCylinder) p;
+			Vector3 a = cyl.getAxis().normalize();
+			double c = cyl.getCenter().dot(axis);
+			double r = Math.abs(a.dot(axis)) * cyl.getLength() / 2 + cyl.getRadius() * perp(a, axis);
+			include(ext, c - r);
+			include(ext, c + r);
+		} else {
+			for (Segment s : p.getSegments()) {
+				include(ext, s.a.dot(axis));
+				include(ext, s.b.dot(axis));
+			}
+		}
+	}
+
+	private static Vector3 farthest(List<Vector3> points, Vector3 from) {
+		Vector3 best = from;
+		double bestDist = -1;
+		for (Vector3 p : points) {
+			double d = p.subtract(from).magSquared();
+			if (d > bestDist) {
+				bestDist = d;
+				best = p;
+			}
+		}
+		return best;
+	}
+	
+	private static double farthestDistance(Shape shape, Vector3 from) {
+		double max = 0;
+		for (Primitive p : shape.getPrimitives()) {
+			max = Math.max(max, farthestDistance(p, from));
+		}
+		return max;
+	}
+	
+	/**
+	 * The distance from a point to the farthest point of a primitive.
+	 */
+	private static double farthestDistance(Primitive p, Vector3 from) {
+		if (p instanceof Sphere) {
+			Sphere s = (Sphere) p;
+			return s.getCenter().distBetween(from) + s.getRadius();
+		} else if (p instanceof Circle) {
+			Circle circle = (Circle) p;
+			return farthestOnCircle(circle.getCenter(), circle.getNormal().normalize(), circle.getRadius(), from);
+		} else if (p instanceof OpenCylinder) {
+			OpenCylinder cyl = (OpenCylinder) p;
+			Vector3 a = cyl.getAxis().normalize();
+			Vector3 halfLength = a.multScaler(cyl.getLength() / 2);
+			return Math.max(farthestOnCircle(cyl.getCenter().add(halfLength), a, cyl.getRadius(), from),
+							farthestOnCircle(cyl.getCenter().subtract(halfLength), a, cyl.getRadius(), from));
+		}
+		double max = 0;
+		for (Segment s : p.getSegments()) {
+			max = Math.max(max, Math.max(s.a.distBetween(from), s.b.distBetween(from)));
+		}
+		return max;
+	}
+	
+	private static double farthestOnCircle(Vector3 center, Vector3 normal, double radius, Vector3 from) {
+		Vector3 d = center.subtract(from);
+		double perp = d.dot(normal);
+		double par = d.projectToPlane(normal).mag() + radius;
+		return Math.sqrt(perp * perp + par * par);
+	}
+
+	/**
+	 * The sine of the angle between two unit vectors.
+	 */
+	private static double perp(Vector3 n, Vector3 axis) {
+		double cos = n.dot(axis);
+		return Math.sqrt(Math.max(0, 1 - cos * cos));
+	}
+
+	private static void include(double[] ext, double value) {
+		ext[0] = Math.min(ext[0], value);
+		ext[1] = Math.max(ext[1], value);
+	}
+
+	private static Vector3 center(Vector3[] axes, double[][] ext) {
+		Vector3 c = Vector3.zero;
+		for (int i = 0; i < axes.length; i++) {
+			c = c.add(axes[i].multScaler((ext[i][0] + ext[i][1]) / 2));
+		}
+		return c;
+	}
+
+	private static Vector3 halfExtents(double[][] ext) {
+		return new Vector3((ext[0][1] - ext[0][0]) / 2, (ext[1][1] - ext[1][0]) / 2, (ext[2][1] - ext[2][0]) / 2);
+	}
+
+	private static double volume(double[][] ext) {
+		return (ext[0][1] - ext[0][0]) * (ext[1][1] - ext[1][0]) * (ext[2][1] - ext[2][0]);
+	}
+
+	/**
+	 * The end points of every segment of every primitive in a shape.
+	 */
+	static List<Vector3> vertices(Shape shape) {
+		List<Vector3> verts = new ArrayList<Vector3>();
+		for (Primitive p : shape.getPrimitives()) {
+			for (Segment s : p.getSegments()) {
+				verts.add(s.a);
+				verts.add(s.b);
+			}
+		}
+		return verts;
+	}
+
+	/**
+	 * The eigenvectors of the covariance matrix of a set of points, found with the cyclic Jacobi method.
+	 * @return three orthonormal right handed axes
+	 */
+	private static Vector3[] principalAxes(List<Vector3> points) {
+		Vector3 mean = Vector3.zero;
+		for (Vector3 p : points) {
+			mean = mean.add(p);
+		}
+		mean = mean.multScaler(1.0 / Math.max(1, points.size()));
+		double[][] a = new double[3][3];
+		for (Vector3 p : points) {
+			double[] d = p.subtract(mean).toArray();
+			for (int i = 0; i < 3; i++) {
+				for (int j = 0; j < 3; j++) {
+					a[i][j] += d[i] * d[j];
+				}
+			}
+		}
+
+		double[][] v = new double[][] {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}};
+		for (int sweep = 0; sweep < MAX_JACOBI_SWEEPS; sweep++) {
+			double off = a[0][1] * a[0][1] + a[0][2] * a[0][2] + a[1][2] * a[1][2];
+			if (off < 1e-20) {
+				break;
+			}
+			for (int p = 0; p < 2; p++) {
+				for (int q = p + 1; q < 3; q++) {
+					if (a[p][q] == 0) {
+						continue;
+					}
+					// rotation that zeroes a[p][q]
+					double theta = (a[q][q] - a[p][p]) / (2 * a[p][q]);
+					double t = Math.signum(theta) / (Math.abs(theta) + Math.sqrt(theta * theta + 1));
+					if (theta == 0) {
+						t = 1;
+					}
+					double c = 1 / Math.sqrt(t * t + 1);
+					double s = t * c;
+					for (int k = 0; k < 3; k++) {
+						double akp = a[k][p];
+						double akq = a[k][q];
+						a[k][p] = c * akp - s * akq;
+						a[k][q] = s * akp + c * akq;
+					}
+					for (int k = 0; k < 3; k++) {
+						double apk = a[p][k];
+						double aqk = a[q][k];
+						a[p][k] = c * apk - s * aqk;
+						a[q][k] = s * apk + c * aqk;
+					}
+					for (int k = 0; k < 3; k++) {
+						double vkp = v[k][p];
+						double vkq = v[k][q];
+						v[k][p] = c * vkp - s * vkq;
+						v[k][q] = s * vkp + c * vkq;
+					}
+				}
+			}
+		}
+		Vector3 e0 = new Vector3(v[0][0], v[1][0], v[2][0]).normalize();
+		Vector3 e1 = new Vector3(v[0][1], v[1][1], v[2][1]).normalize();
+		return new Vector3[] {e0, e1, e0.cross(e1)};
+	}
+
+}
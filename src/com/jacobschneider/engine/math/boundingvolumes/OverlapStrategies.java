@@ -15,9 +15,6 @@ import com.jacobschneider.engine.math.Vector3;
 public class OverlapStrategies {	
 	public static class SphereSphereOverlap implements OverlapStrategy {
 		public boolean testOverlap(BoundVolume vol1, BoundVolume vol2) {
-			if (!(vol1 instanceof BoundSphere) || !(vol2 instanceof BoundSphere)) {
-				throw new IllegalArgumentException("Arguments must be of type BoundSphere");
-			}
 			BoundSphere s1 = (BoundSphere)vol1;
 			BoundSphere s2 = (BoundSphere)vol2;
 			Vector3 d = s1.getCenter().subtract(s2.getCenter());
@@ -34,33 +31,14 @@ public class OverlapStrategies {
 	
 	public static class SphereCircleOverlap implements OverlapStrategy {
 		public boolean testOverlap(BoundVolume vol1, BoundVolume vol2) {
-			// argument checking
-			BoundSphere s = null;
-			BoundCircle p = null;
-			if (vol1 instanceof BoundSphere) {
-				if (vol2 instanceof BoundCircle) {
-					s = (BoundSphere)vol1;
-					p = (BoundCircle)vol2;
-				} 
-			} else if (vol2 instanceof BoundSphere) {
-				if (vol1 instanceof BoundCircle) {
-					s = (BoundSphere)vol2;
-					p = (BoundCircle)vol1;
-				}
-			} else {
-				throw new IllegalArgumentException("One argument must be of type Boundsphere and one of type BoundPlane");
-			}
-			// overlap check
+			BoundSphere s = (BoundSphere)vol1;
+			BoundCircle p = (BoundCircle)vol2;
+			// distance from the center of the sphere to the closest point on the disk
 			Vector3 r = s.getCenter().subtract(p.getCenter());
 			double rPerp = r.dot(p.getNormal());
-			if (rPerp > s.getRadius()) {
-				return false;
-			}
 			double rPar = r.projectToPlane(p.getNormal()).mag();
-			if (rPar > p.getRadius()) {
-				return false;
-			}			
-			return true;			
+			double outside = Math.max(0, rPar - p.getRadius()); // distance past the rim in the plane of the disk
+			return rPerp * rPerp + outside * outside <= s.getRadius() * s.getRadius();			
 		}		
 		
 
@@ -74,8 +52,43 @@ public class OverlapStrategies {
 
 		@Override
 		public boolean testOverlap(BoundVolume vol1, BoundVolume vol2) {
-			// TODO Auto-generated method stub
-			return true;
+			BoundCircle c1 = (BoundCircle)vol1;
+			BoundCircle c2 = (BoundCircle)vol2;
+			Vector3 n1 = c1.getNormal();
+			Vector3 n2 = c2.getNormal();
+			Vector3 d = c2.getCenter().subtract(c1.getCenter());
+			Vector3 u = n1.cross(n2); // direction of the line where the planes meet
+			double u2 = u.magSquared();
+			if (u2 < PARALLEL_TOLERANCE) { // parallel disks only touch when they are coplanar
+				double radiusSum = c1.getRadius() + c2.getRadius();
+				return Math.abs(d.dot(n1)) <= PARALLEL_TOLERANCE && d.magSquared() <= radiusSum * radiusSum;
+			}
+			// a point on both planes, relative to the center of c1
+			double h2 = d.dot(n2);
+			Vector3 p0 = u.cross(n1).multScaler(h2 / u2);
+			// each disk cuts the line in a chord, the disks overlap if the chords overlap
+			u = u.multScaler(1 / Math.sqrt(u2));
+			double[] chord1 = chord(p0, u, Vector3.zero, c1.getRadius());
+			double[] chord2 = chord(p0, u, d, c2.getRadius());
+			if (chord1 == null || chord2 == null) {
+				return false;
+			}
+			return chord1[0] <= chord2[1] && chord2[0] <= chord1[1];
+		}
+		
+		/**
+		 * The interval of the line p0 + t*u that lies inside a disk whose plane contains the line.
+		 * @return {tMin, tMax} or null if the line misses the disk
+		 */
+		private static double[] chord(Vector3 p0, Vector3 u, Vector3 center, double radius) {
+			Vector3 toCenter = center.subtract(p0);
+			double t = toCenter.dot(u);
+			double dist2 = toCenter.magSquared() - t * t;
+			if (dist2 > radius * radius) {
+				return null;
+			}
+			double halfLength = Math.sqrt(radius * radius - dist2);
+			return new double[] {t - halfLength, t + halfLength};
 		}
 
 		@Override
@@ -83,8 +96,192 @@ public class OverlapStrategies {
 			return new BoundVolumePair(BoundCircle.class, BoundCircle.class);
 		}
 		
-	}		
+	}
 	
+	public static class AABBAABBOverlap implements OverlapStrategy {
+		@Override
+		public boolean testOverlap(BoundVolume vol1, BoundVolume vol2) {
+			BoundAABB a = (BoundAABB)vol1;
+			BoundAABB b = (BoundAABB)vol2;
+			Vector3 d = a.getCenter().subtract(b.getCenter());
+			Vector3 ha = a.getHalfExtents();
+			Vector3 hb = b.getHalfExtents();
+			return Math.abs(d.x) <= ha.x + hb.x && Math.abs(d.y) <= ha.y + hb.y && Math.abs(d.z) <= ha.z + hb.z;
+		}
+
+		@Override
+		public BoundVolumePair getVolumePair() {
+			return new BoundVolumePair(BoundAABB.class, BoundAABB.class);
+		}
+	}
 	
+	public static class SphereAABBOverlap implements OverlapStrategy {
+		@Override
+		public boolean testOverlap(BoundVolume vol1, BoundVolume vol2) {
+			BoundSphere s = (BoundSphere)vol1;
+			BoundAABB b = (BoundAABB)vol2;
+			return sphereBoxOverlap(s, b.getCenter(), WORLD_AXES, b.getHalfExtents().toArray());
+		}
+
+		@Override
+		public BoundVolumePair getVolumePair() {
+			return new BoundVolumePair(BoundSphere.class, BoundAABB.class);
+		}
+	}
+	
+	public static class AABBCircleOverlap implements OverlapStrategy {
+		@Override
+		public boolean testOverlap(BoundVolume vol1, BoundVolume vol2) {
+			BoundAABB b = (BoundAABB)vol1;
+			BoundCircle c = (BoundCircle)vol2;
+			return boxCircleOverlap(b.getCenter(), WORLD_AXES, b.getHalfExtents().toArray(), c);
+		}
+
+		@Override
+		public BoundVolumePair getVolumePair() {
+			return new BoundVolumePair(BoundAABB.class, BoundCircle.class);
+		}
+	}
+	
+	public static class OBBOBBOverlap implements OverlapStrategy {
+		@Override
+		public boolean testOverlap(BoundVolume vol1, BoundVolume vol2) {
+			BoundOBB a = (BoundOBB)vol1;
+			BoundOBB b = (BoundOBB)vol2;
+			return boxBoxOverlap(a.getCenter(), a.getAxes(), a.getHalfExtents(), b.getCenter(), b.getAxes(), b.getHalfExtents());
+		}
+
+		@Override
+		public BoundVolumePair getVolumePair() {
+			return new BoundVolumePair(BoundOBB.class, BoundOBB.class);
+		}
+	}
+	
+	public static class AABBOBBOverlap implements OverlapStrategy {
+		@Override
+		public boolean testOverlap(BoundVolume vol1, BoundVolume vol2) {
+			BoundAABB a = (BoundAABB)vol1;
+			BoundOBB b = (BoundOBB)vol2;
+			return boxBoxOverlap(a.getCenter(), WORLD_AXES, a.getHalfExtents().toArray(), b.getCenter(), b.getAxes(), b.getHalfExtents());
+		}
+
+		@Override
+		public BoundVolumePair getVolumePair() {
+			return new BoundVolumePair(BoundAABB.class, BoundOBB.class);
+		}
+	}
+	
+	public static class SphereOBBOverlap implements OverlapStrategy {
+		@Override
+		public boolean testOverlap(BoundVolume vol1, BoundVolume vol2) {
+			BoundSphere s = (BoundSphere)vol1;
+			BoundOBB b = (BoundOBB)vol2;
+			return sphereBoxOverlap(s, b.getCenter(), b.getAxes(), b.getHalfExtents());
+		}
+
+		@Override
+		public BoundVolumePair getVolumePair() {
+			return new BoundVolumePair(BoundSphere.class, BoundOBB.class);
+		}
+	}
+	
+	public static class OBBCircleOverlap implements OverlapStrategy {
+		@Override
+		public boolean testOverlap(BoundVolume vol1, BoundVolume vol2) {
+			BoundOBB b = (BoundOBB)vol1;
+			BoundCircle c = (BoundCircle)vol2;
+			return boxCircleOverlap(b.getCenter(), b.getAxes(), b.getHalfExtents(), c);
+		}
+
+		@Override
+		public BoundVolumePair getVolumePair() {
+			return new BoundVolumePair(BoundOBB.class, BoundCircle.class);
+		}
+	}
+	
+	private static final Vector3[] WORLD_AXES = new Vector3[] {Vector3.i, Vector3.j, Vector3.k};
+	private static final double PARALLEL_TOLERANCE = 0.000001;
+	
+	/**
+	 * Tests a sphere against a box by finding the closest point on the box to the center of the sphere.
+	 */
+	private static boolean sphereBoxOverlap(BoundSphere s, Vector3 center, Vector3[] axes, double[] h) {
+		Vector3 d = s.getCenter().subtract(center);
+		double dist2 = 0;
+		for (int i = 0; i < 3; i++) {
+			double t = d.dot(axes[i]);
+			double excess = Math.abs(t) - h[i]; // distance outside the box along this axis
+			if (excess > 0) {
+				dist2 += excess * excess;
+			}
+		}
+		return dist2 <= s.getRadius() * s.getRadius();
+	}
+	
+	/**
+	 * Separating axis test between two boxes. See Gottschalk, OBBTree: A Hierarchical Structure for Rapid Interference Detection.
+	 */
+	private static boolean boxBoxOverlap(Vector3 ca, Vector3[] axesA, double[] ha, Vector3 cb, Vector3[] axesB, double[] hb) {
+		double[][] r = new double[3][3]; // rotation of b expressed in the frame of a
+		double[][] absR = new double[3][3];
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 3; j++) {
+				r[i][j] = axesA[i].dot(axesB[j]);
+				absR[i][j] = Math.abs(r[i][j]) + 0.000001; // keeps nearly parallel edges from creating a zero axis
+			}
+		}
+		Vector3 d = cb.subtract(ca);
+		double[] t = new double[] {d.dot(axesA[0]), d.dot(axesA[1]), d.dot(axesA[2])};
+		
+		// axes of a
+		for (int i = 0; i < 3; i++) {
+			if (Math.abs(t[i]) > ha[i] + hb[0] * absR[i][0] + hb[1] * absR[i][1] + hb[2] * absR[i][2]) {
+				return false;
+			}
+		}
+		// axes of b
+		for (int j = 0; j < 3; j++) {
+			double proj = t[0] * r[0][j] + t[1] * r[1][j] + t[2] * r[2][j];
+			if (Math.abs(proj) > hb[j] + ha[0] * absR[0][j] + ha[1] * absR[1][j] + ha[2] * absR[2][j]) {
+				return false;
+			}
+		}
+		// cross products of the axes
+		for (int i = 0; i < 3; i++) {
+			int i1 = (i + 1) % 3;
+			int i2 = (i + 2) % 3;
+			for (int j = 0; j < 3; j++) {
+				int j1 = (j + 1) % 3;
+				int j2 = (j + 2) % 3;
+				double radA = ha[i1] * absR[i2][j] + ha[i2] * absR[i1][j];
+				double radB = hb[j1] * absR[i][j2] + hb[j2] * absR[i][j1];
+				if (Math.abs(t[i2] * r[i1][j] - t[i1] * r[i2][j]) > radA + radB) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Tests a box against a circle. The box is rejected if it lies entirely on one side of the plane of the circle
+	 * or if its bounding sphere is past the rim of the circle.
+	 */
+	private static boolean boxCircleOverlap(Vector3 center, Vector3[] axes, double[] h, BoundCircle c) {
+		Vector3 n = c.getNormal();
+		Vector3 r = center.subtract(c.getCenter());
+		// extent of the box along the normal and in the plane of the circle
+		double perpExtent = 0;
+		double boxRadius2 = 0;
+		for (int i = 0; i < 3; i++) {
+			perpExtent += h[i] * Math.abs(axes[i].dot(n));
+			boxRadius2 += h[i] * h[i];
+		}
+		if (Math.abs(r.dot(n)) > perpExtent) {
+			return false;
+		}
+		double rPar = r.projectToPlane(n).mag();
+		return rPar <= c.getRadius() + Math.sqrt(boxRadius2);
+	}
 
 }
@@ -5,27 +5,30 @@ import com.jacobschneider.engine.math.vectorcalc.AbstractManifold;
 
 public class Line extends AbstractManifold  {
 	private final Vector3 point;
-	private final Vector3 dir;
+	private final Vector3 dir; // unit length
 	private final Vector3 perp;
 	
 	public Line(Vector3 point, Vector3 dir) {
+		if (dir.equals(Vector3.zero)) {
+			throw new IllegalArgumentException("The direction of a line cannot be zero");
+		}
 		this.point = point;
-		this.dir = dir;
+		this.dir = dir.normalize();
 		this.perp = dir.randomPerp();
 	}
 
 	@Override
 	public Vector3 mapToManifold(Vector3 worldPoint) {
 		Vector3 r = worldPoint.subtract(point);
-		return point.add(r.projectToVector(dir));
+		return point.add(dir.multScaler(r.dot(dir)));
 	}
 
+	/**
+	 * The projection is the same at every point of a line, so surfacePoint is not checked.
+	 */
 	@Override
 	public Vector3 projectToManifold(Vector3 surfacePoint, Vector3 vect) {
-		if (!isOnManifold(surfacePoint)) {
-			throw new IllegalArgumentException("surfacePoint must be on the surface of the manifold");
-		}
-		return vect.projectToVector(dir);		
+		return dir.multScaler(vect.dot(dir));
 	}
 
 	@Override
@@ -1,32 +1,88 @@
 package com.jacobschneider.engine.math.geometry;
 
-import com.jacobschneider.engine.framework.Manifold;
+import java.util.Arrays;
+import java.util.List;
+
 import com.jacobschneider.engine.math.Vector3;
+import com.jacobschneider.engine.math.vectorcalc.AbstractManifold;
 
-public class Path implements Manifold {
+/**
+ * A path made of straight segments between a list of points. Every method checks each segment once,
+ * so the cost grows with the number of points but is always bounded.
+ * 
+ * @author Jacob
+ *
+ */
+public class Path extends AbstractManifold {
+	private final Vector3[] points;
+	private final Vector3[] dirs; // unit direction of each segment
+	private final double[] lengths; // length of each segment
+	
+	/**
+	 * @param points the points the path passes through in order, at least two
+	 */
+	public Path(Vector3... points) {
+		this(Arrays.asList(points));
+	}
+	
+	/**
+	 * @param points the points the path passes through in order, at least two
+	 */
+	public Path(List<Vector3> points) {
+		if (points.size() < 2) {
+			throw new IllegalArgumentException("A path needs at least two points");
+		}
+		this.points = points.toArray(new Vector3[points.size()]);
+		this.dirs = new Vector3[this.points.length - 1];
+		this.lengths = new double[dirs.length];
+		for (int i = 0; i < dirs.length; i++) {
+			Vector3 seg = this.points[i + 1].subtract(this.points[i]);
+			lengths[i] = seg.mag();
+			if (lengths[i] == 0) {
+				throw new IllegalArgumentException("Consecutive points of a path cannot be the same");
+			}
+			dirs[i] = seg.multScaler(1 / lengths[i]);
+		}
+	}
+	
+	/**
+	 * @return the index of the segment closest to a point
+	 */
+	private int closestSegment(Vector3 point) {
+		int closest = 0;
+		double closestDist = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < dirs.length; i++) {
+			double dist = point.subtract(closestPoint(i, point)).magSquared();
+			if (dist < closestDist) {
+				closest = i;
+				closestDist = dist;
+			}
+		}
+		return closest;
+	}
+	
+	private Vector3 closestPoint(int segment, Vector3 point) {
+		double t = Math.max(0, Math.min(lengths[segment], point.subtract(points[segment]).dot(dirs[segment])));
+		return points[segment].add(dirs[segment].multScaler(t));
+	}
 
 	@Override
 	public Vector3 mapToManifold(Vector3 point) {
-		// TODO Auto-generated method stub
-		return null;
+		return closestPoint(closestSegment(point), point);
 	}
 
+	/**
+	 * Projects onto the direction of the segment the point is on. At a corner the segment that comes first is used.
+	 */
 	@Override
 	public Vector3 projectToManifold(Vector3 surfacePoint, Vector3 vect) {
-		// TODO Auto-generated method stub
-		return null;
+		Vector3 dir = dirs[closestSegment(surfacePoint)];
+		return dir.multScaler(vect.dot(dir));
 	}
 
 	@Override
 	public Vector3 perpVect(Vector3 pointOnSurface) {
-		// TODO Auto-generated method stub
-		return null;
-	}
-
-	@Override
-	public boolean isOnManifold(Vector3 point) {
-		// TODO Auto-generated method stub
-		return false;
+		return dirs[closestSegment(pointOnSurface)].randomPerp();
 	}
 
 }
@@ -207,6 +207,27 @@ public class Primitives {
 			return n;
 		}
 		
+		/**
+		 * @return the center of the circle in body space
+		 */
+		public Vector3 getCenter() {
+			return centerPos;
+		}
+		
+		/**
+		 * @return the radius of the circle
+		 */
+		public double getRadius() {
+			return radius;
+		}
+		
+		/**
+		 * @return the number of segments this circle was created with
+		 */
+		public int getNumSegments() {
+			return numSegments;
+		}
+		
 		@Override
 		public void draw(GLAutoDrawable drawable) {
 			GL2 gl = drawable.getGL().getGL2();
@@ -319,6 +340,41 @@ public class Primitives {
 			return null;
 		}
 		
+		/**
+		 * @return the center of the cylinder in body space
+		 */
+		public Vector3 getCenter() {
+			return centerPos;
+		}
+		
+		/**
+		 * @return the lengthwise direction of the cylinder
+		 */
+		public Vector3 getAxis() {
+			return n;
+		}
+		
+		/**
+		 * @return the full length of the cylinder
+		 */
+		public double getLength() {
+			return length;
+		}
+		
+		/**
+		 * @return the radius of the cylinder
+		 */
+		public double getRadius() {
+			return radius;
+		}
+		
+		/**
+		 * @return the number of segments this cylinder was created with
+		 */
+		public int getNumSegments() {
+			return numSegs;
+		}
+		
 		@Override
 		public void draw(GLAutoDrawable drawable) {
 			GL2 gl = drawable.getGL().getGL2();
@@ -427,6 +483,27 @@ public class Primitives {
 		public Vector3 getNormal() {
 			return null;
 		}
+		
+		/**
+		 * @return the center of the sphere in body space
+		 */
+		public Vector3 getCenter() {
+			return center;
+		}
+		
+		/**
+		 * @return the radius of the sphere
+		 */
+		public double getRadius() {
+			return radius;
+		}
+		
+		/**
+		 * @return the rank this sphere was created with
+		 */
+		public int getRank() {
+			return rank;
+		}
 
 		@Override
 		public void draw(GLAutoDrawable drawable) {
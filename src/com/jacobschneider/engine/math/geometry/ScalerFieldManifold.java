@@ -4,10 +4,13 @@ import com.jacobschneider.engine.framework.Manifold;
 import com.jacobschneider.engine.framework.ScalarField;
 import com.jacobschneider.engine.math.Vector3;
 import com.jacobschneider.engine.math.vectorcalc.AbstractManifold;
+import com.jacobschneider.engine.math.vectorcalc.AbstractScalarField;
 
 public class ScalerFieldManifold extends AbstractManifold {	
 	private final ScalarField s;
 	private final double potential;
+	private final double tolerance; // largest difference from the potential that counts as on the manifold
+	private final int maxIterations; // most Newton-Raphson steps taken by mapToManifold
 	
 	/**
 	 * Creates a {@link Manifold} from a {@link ScalarField} and a potential value
@@ -16,13 +19,37 @@ public class ScalerFieldManifold extends AbstractManifold {
 	 * @param potential the potential value to create the manifold at
 	 */
 	public ScalerFieldManifold(ScalarField s, double potential) {
+		this(s, potential, AbstractScalarField.DEFAULT_TOLERANCE, AbstractScalarField.DEFAULT_MAX_ITERATIONS);
+	}
+	
+	/**
+	 * Creates a {@link Manifold} from a {@link ScalarField} and a potential value
+	 * of the {@link ScalarField}
+	 * @param s the scaler field
+	 * @param potential the potential value to create the manifold at
+	 * @param tolerance the largest difference from the potential that counts as on the manifold
+	 * @param maxIterations the most Newton-Raphson steps taken to map a point to the manifold
+	 */
+	public ScalerFieldManifold(ScalarField s, double potential, double tolerance, int maxIterations) {
+		if (tolerance < 0) {
+			throw new IllegalArgumentException("The tolerance cannot be negative");
+		}
+		if (maxIterations < 1) {
+			throw new IllegalArgumentException("At least one iteration is needed");
+		}
 		this.s = s;
 		this.potential = potential;
+		this.tolerance = tolerance;
+		this.maxIterations = maxIterations;
 	}
 
+	/**
+	 * Follows the gradient of the field from the point with at most maxIterations Newton-Raphson steps.
+	 * The result is on the manifold but not always the closest point on it.
+	 */
 	@Override
 	public Vector3 mapToManifold(Vector3 point) {
-		return s.gradientTraversal(point, potential);
+		return AbstractScalarField.gradientTraversal(s, point, potential, tolerance, maxIterations);
 	}
 
 	@Override
@@ -37,6 +64,6 @@ public class ScalerFieldManifold extends AbstractManifold {
 	
 	@Override
 	public boolean isOnManifold(Vector3 point) {
-		return (s.getValue(point) == potential);
+		return Math.abs(s.getValue(point) - potential) <= tolerance;
 	}
 }
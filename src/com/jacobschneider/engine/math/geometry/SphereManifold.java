@@ -0,0 +1,51 @@
+package com.jacobschneider.engine.math.geometry;
+
+import com.jacobschneider.engine.math.Vector3;
+import com.jacobschneider.engine.math.vectorcalc.AbstractManifold;
+
+/**
+ * The surface of a sphere. Every method is closed form.
+ * 
+ * @author Jacob
+ *
+ */
+public class SphereManifold extends AbstractManifold {
+	private final Vector3 center;
+	private final double radius;
+	
+	/**
+	 * @param center the center of the sphere
+	 * @param radius the radius of the sphere, must be positive
+	 */
+	public SphereManifold(Vector3 center, double radius) {
+		if (!(radius > 0) || Double.isInfinite(radius)) {
+			throw new IllegalArgumentException("The radius of a sphere must be positive and finite: " + radius);
+		}
+		this.center = center;
+		this.radius = radius;
+	}
+
+	/**
+	 * Maps a point along the line through the center. The center itself maps to the point radius away along x.
+	 */
+	@Override
+	public Vector3 mapToManifold(Vector3 point) {
+		Vector3 r = point.subtract(center);
+		double dist = r.mag();
+		if (dist == 0) {
+			return center.add(Vector3.i.multScaler(radius));
+		}
+		return center.add(r.multScaler(radius / dist));
+	}
+
+	@Override
+	public Vector3 projectToManifold(Vector3 surfacePoint, Vector3 vect) {
+		return vect.projectToPlane(surfacePoint.subtract(center));
+	}
+
+	@Override
+	public Vector3 perpVect(Vector3 pointOnSurface) {
+		return pointOnSurface.subtract(center).normalize();
+	}
+
+}
@@ -12,8 +12,14 @@ import com.jacobschneider.engine.math.geometry.ScalerFieldManifold;
  *
  */
 public abstract class AbstractScalarField implements ScalarField {
-	private static final double STEP_SIZE = 10000;
-	private static final double DOUBLE_EQUALITY_TOLERANCE = Math.pow(10, -2);
+	/**
+	 * The default largest difference from the desired potential accepted by {@link #gradientTraversal(Vector3, double)}.
+	 */
+	public static final double DEFAULT_TOLERANCE = Math.pow(10, -9);
+	/**
+	 * The default number of Newton-Raphson steps {@link #gradientTraversal(Vector3, double)} takes before giving up.
+	 */
+	public static final int DEFAULT_MAX_ITERATIONS = 50;
 
 	@Override
 	public ScalarField add(ScalarField otherField) {
@@ -27,13 +33,39 @@ public abstract class AbstractScalarField implements ScalarField {
 	
 	@Override
 	public Vector3 gradientTraversal(Vector3 point, double desiredPotential) {
-		double potentialDiff = desiredPotential - getValue(point);
-		double dx = potentialDiff / STEP_SIZE;
-		while (Math.abs(potentialDiff) >= DOUBLE_EQUALITY_TOLERANCE) {				
-			point = point.add(gradient(point).multScaler(dx * potentialDiff));
-			potentialDiff = desiredPotential - getValue(point);		
+		return gradientTraversal(this, point, desiredPotential, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+	}
+	
+	/**
+	 * Moves a point along the gradient of a scaler field until the field reaches a potential, using Newton-Raphson steps.
+	 * Each step moves by (desiredPotential - f) * grad(f) / |grad(f)|^2, which lands exactly on the potential when the
+	 * field is linear along the step. If the potential is not reached within maxIterations steps, or the gradient
+	 * vanishes, the point closest to the potential that was found is returned.
+	 * @param s the scaler field
+	 * @param point the starting point in Cartesian coordinates
+	 * @param desiredPotential the potential to reach
+	 * @param tolerance the largest difference from the desired potential that is accepted
+	 * @param maxIterations the largest number of steps to take
+	 * @return the ending point of the path
+	 */
+	public static Vector3 gradientTraversal(ScalarField s, Vector3 point, double desiredPotential, double tolerance, int maxIterations) {
+		Vector3 best = point;
+		double bestDiff = desiredPotential - s.getValue(point);
+		double potentialDiff = bestDiff;
+		for (int i = 0; i < maxIterations && Math.abs(potentialDiff) > tolerance; i++) {
+			Vector3 grad = s.gradient(point);
+			double gradMagSquared = grad.magSquared();
+			if (!(gradMagSquared > 0) || Double.isInfinite(gradMagSquared)) {
+				break;
+			}
+			point = point.add(grad.multScaler(potentialDiff / gradMagSquared));
+			potentialDiff = desiredPotential - s.getValue(point);
+			if (Math.abs(potentialDiff) < Math.abs(bestDiff)) {
+				best = point;
+				bestDiff = potentialDiff;
+			}
 		}
-		return point;		
+		return best;
 	}
 
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.jacobschneider.engine.math.vectorcalc;
 
 import com.jacobschneider.engine.framework.VectorField;
+import com.jacobschneider.engine.math.Vector3;
 
 
 /**
@@ -15,5 +16,15 @@ public abstract class AbstractVectorField implements VectorField {
 	public VectorField add(VectorField otherField) {
 		return new SumVectorField(this, otherField);
 	}
+	
+	@Override
+	public void addValues(double[] points, Vector3 origin, int from, int to, double[] out) {
+		for (int i = from; i < to; i++) {
+			Vector3 value = getValue(new Vector3(points[3*i] - origin.x, points[3*i+1] - origin.y, points[3*i+2] - origin.z));
+			out[3*i] += value.x;
+			out[3*i+1] += value.y;
+			out[3*i+2] += value.z;
+		}
+	}
 
 }
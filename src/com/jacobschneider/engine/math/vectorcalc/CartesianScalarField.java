@@ -12,8 +12,8 @@ import com.jacobschneider.engine.math.geometry.Manifoldable;
  *
  */
 public class CartesianScalarField extends AbstractScalarField implements Manifoldable {
-	private final double A,B,C; // coefficients
-	private final double a,b,c; // exponents
+	final double A,B,C; // coefficients, package-private so FieldCompiler can read them
+	final double a,b,c; // exponents
 	
 	/**
 	 * Creates a scaler field of the form
@@ -48,7 +48,14 @@ public class CartesianScalarField extends AbstractScalarField implements Manifol
 
 	@Override
 	public double getValue(Vector3 point) {
-		return A * Math.pow(point.x, a) + B * Math.pow(point.y, b) + C * Math.pow(point.z, c);
+		return getValue(point.x, point.y, point.z);
+	}
+	
+	/**
+	 * The value of this scaler field at a point given by its coordinates, without creating a {@link Vector3}.
+	 */
+	double getValue(double x, double y, double z) {
+		return A * Math.pow(x, a) + B * Math.pow(y, b) + C * Math.pow(z, c);
 	}
 
 	@Override
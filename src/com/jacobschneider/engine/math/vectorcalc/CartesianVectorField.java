@@ -17,6 +17,18 @@ public class CartesianVectorField extends AbstractVectorField {
 	public Vector3 getValue(Vector3 point) {
 		return new Vector3(x.getValue(point), y.getValue(point), z.getValue(point));
 	}
+	
+	@Override
+	public void addValues(double[] points, Vector3 origin, int from, int to, double[] out) {
+		for (int i = from; i < to; i++) {
+			double px = points[3*i] - origin.x;
+			double py = points[3*i+1] - origin.y;
+			double pz = points[3*i+2] - origin.z;
+			out[3*i] += x.getValue(px, py, pz);
+			out[3*i+1] += y.getValue(px, py, pz);
+			out[3*i+2] += z.getValue(px, py, pz);
+		}
+	}
 
 	@Override
 	public Vector3 curl(Vector3 point) {
@@ -0,0 +1,80 @@
+package com.jacobschneider.engine.math.vectorcalc;
+
+import com.jacobschneider.engine.math.Vector3;
+
+/**
+ * A vector field that always points along the line to the origin, of the form F(r) = k*r^n in the radial direction.
+ * A positive k pushes away from the origin and a negative k pulls towards it.
+ * Fields with n = -2 (inverse square) are evaluated without {@link Math#pow(double, double)}.
+ *
+ * @author Jacob
+ *
+ */
+public final class CentralForceField extends AbstractVectorField {
+	private final double k; // coefficient
+	private final int n; // exponent
+
+	/**
+	 * Creates a vector field of the form F(r) = k*r^n in the radial direction.
+	 * @param k the coefficient
+	 * @param n the exponent
+	 */
+	public CentralForceField(double k, int n) {
+		this.k = k;
+		this.n = n;
+	}
+
+	/**
+	 * @return the coefficient k of F(r) = k*r^n
+	 */
+	public double getCoefficient() {
+		return k;
+	}
+
+	/**
+	 * @return the exponent n of F(r) = k*r^n
+	 */
+	public int getExponent() {
+		return n;
+	}
+
+	/**
+	 * k*r^(n-1), the number the position vector is multiplied by to give the field at a point.
+	 */
+	private double scale(double r2) {
+		if (n == -2) {
+			return k / (r2 * Math.sqrt(r2));
+		}
+		return k * Math.pow(r2, 0.5 * (n - 1));
+	}
+
+	@Override
+	public Vector3 getValue(Vector3 point) {
+		return point.multScaler(scale(point.dot(point)));
+	}
+
+	@Override
+	public void addValues(double[] points, Vector3 origin, int from, int to, double[] out) {
+		for (int i = from; i < to; i++) {
+			double px = points[3*i] - origin.x;
+			double py = points[3*i+1] - origin.y;
+			double pz = points[3*i+2] - origin.z;
+			double s = scale(px * px + py * py + pz * pz);
+			out[3*i] += s * px;
+			out[3*i+1] += s * py;
+			out[3*i+2] += s * pz;
+		}
+	}
+
+	@Override
+	public Vector3 curl(Vector3 point) {
+		return Vector3.zero; // every central field is irrotational
+	}
+
+	@Override
+	public double divergence(Vector3 point) {
+		double r2 = point.dot(point);
+		return (n + 2) * scale(r2); // (1/r^2) d(r^2 * k*r^n)/dr
+	}
+
+}
@@ -0,0 +1,82 @@
+package com.jacobschneider.engine.math.vectorcalc;
+
+import com.jacobschneider.engine.framework.Manifold;
+import com.jacobschneider.engine.framework.VectorField;
+import com.jacobschneider.engine.math.Vector3;
+import com.jacobschneider.engine.math.geometry.SphereManifold;
+
+/**
+ * A scaler field that only depends on the distance from the origin, of the form f(r) = -strength*r^power.
+ * Its force field is a {@link CentralForceField}.
+ *
+ * @author Jacob
+ *
+ */
+public final class CentralPotential extends AbstractScalarField {
+	private final double strength;
+	private final int power;
+
+	/**
+	 * Creates a scaler field of the form f(r) = -strength*r^power.
+	 * If strength and power have opposite signs the force will be towards the origin else the force will be away from the origin.
+	 * @param strength the strength of the scaler field
+	 * @param power how the field varies with distance, cannot be zero
+	 */
+	public CentralPotential(double strength, int power) {
+		if (power == 0) {
+			throw new IllegalArgumentException("A central potential with a power of zero is constant and exerts no force");
+		}
+		this.strength = strength;
+		this.power = power;
+	}
+
+	/**
+	 * @return the strength of f(r) = -strength*r^power
+	 */
+	public double getStrength() {
+		return strength;
+	}
+
+	/**
+	 * @return the power of f(r) = -strength*r^power
+	 */
+	public int getPower() {
+		return power;
+	}
+
+	/**
+	 * @return true if the force from this potential falls off with the square of the distance
+	 */
+	public boolean isInverseSquare() {
+		return power == -1;
+	}
+
+	@Override
+	public double getValue(Vector3 point) {
+		return -strength * Math.pow(point.mag(), power);
+	}
+
+	@Override
+	public Vector3 gradient(Vector3 point) {
+		double r2 = point.dot(point);
+		return point.multScaler(-strength * power * Math.pow(r2, 0.5 * (power - 2)));
+	}
+
+	/**
+	 * Every level set of a central potential is a sphere around the origin, found in closed form.
+	 */
+	@Override
+	public Manifold toManifold(double potential) {
+		double radius = Math.pow(-potential / strength, 1.0 / power);
+		if (!(radius > 0) || Double.isInfinite(radius)) {
+			throw new IllegalArgumentException("This field never has a potential of " + potential);
+		}
+		return new SphereManifold(Vector3.zero, radius);
+	}
+
+	@Override
+	public VectorField toVectorField() {
+		return new CentralForceField(strength * power, power - 1);
+	}
+
+}
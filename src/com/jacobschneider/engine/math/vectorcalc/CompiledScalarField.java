@@ -0,0 +1,218 @@
+package com.jacobschneider.engine.math.vectorcalc;
+
+import java.util.List;
+
+import com.jacobschneider.engine.framework.ScalarField;
+import com.jacobschneider.engine.framework.VectorField;
+import com.jacobschneider.engine.math.Vector3;
+
+/**
+ * A flat sum of terms of the form A*x^a, A*y^a, A*z^a and A*r^a, plus any fields that could not be flattened.
+ * Created by {@link FieldCompiler#compile(ScalarField)}.
+ * Integer exponents are evaluated with multiplication instead of {@link Math#pow(double, double)}, and the value and
+ * gradient of each term share the same power of the coordinate.
+ *
+ * @author Jacob
+ *
+ */
+public final class CompiledScalarField extends AbstractScalarField {
+	private static final int MAX_MULTIPLIED_EXPONENT = 64; // larger integer exponents still use Math.pow
+
+	private final int[] kinds; // 0, 1, 2 for the x, y and z coordinate, 3 for the distance from the origin
+	private final double[] coefficients;
+	private final double[] exponents;
+	private final boolean[] integral; // true if the exponent is a small integer
+	private final ScalarField[] others;
+
+	CompiledScalarField(List<double[]> terms, List<ScalarField> others) {
+		int n = terms.size();
+		this.kinds = new int[n];
+		this.coefficients = new double[n];
+		this.exponents = new double[n];
+		this.integral = new boolean[n];
+		for (int i = 0; i < n; i++) {
+			double[] t = terms.get(i);
+			kinds[i] = (int) t[0];
+			coefficients[i] = t[1];
+			exponents[i] = t[2];
+			integral[i] = t[2] == Math.rint(t[2]) && Math.abs(t[2]) <= MAX_MULTIPLIED_EXPONENT;
+		}
+		this.others = others.toArray(new ScalarField[others.size()]);
+	}
+
+	/**
+	 * Adds the terms and fields of this field back into lists, so a sum containing this field can be compiled.
+	 */
+	void decompile(List<double[]> terms, List<ScalarField> others) {
+		for (int i = 0; i < kinds.length; i++) {
+			FieldCompiler.addTerm(terms, kinds[i], coefficients[i], exponents[i]);
+		}
+		for (ScalarField f : this.others) {
+			others.add(f);
+		}
+	}
+
+	/**
+	 * Evaluates the value and, if gradient is not null, the gradient of this field at a point.
+	 * @param gradient set to the packed gradient when not null
+	 * @return the value of the field
+	 */
+	double evaluate(double x, double y, double z, double[] gradient) {
+		double value = 0, gx = 0, gy = 0, gz = 0;
+		double r2 = -1, r = -1; // computed when the first distance term needs them
+		for (int i = 0; i < kinds.length; i++) {
+			double e = exponents[i];
+			double c = coefficients[i];
+			int kind = kinds[i];
+			if (kind == 3) {
+				if (r2 < 0) {
+					r2 = x * x + y * y + z * z;
+					r = Math.sqrt(r2);
+				}
+				double p = power(r, e, integral[i]); // r^e
+				value += c * p;
+				if (gradient != null) {
+					double s = c * e * p / r2; // d(r^e)/dr / r
+					gx += s * x;
+					gy += s * y;
+					gz += s * z;
+				}
+			} else {
+				double coord = kind == 0 ? x : kind == 1 ? y : z;
+				if (e == 0) {
+					value += c;
+					continue;
+				}
+				double p = power(coord, e, integral[i]);
+				value += c * p;
+				if (gradient != null) {
+					double d = c * e * (coord != 0 ? p / coord : power(coord, e - 1, integral[i])); // shares x^e for x^(e-1)
+					if (kind == 0) {
+						gx += d;
+					} else if (kind == 1) {
+						gy += d;
+					} else {
+						gz += d;
+					}
+				}
+			}
+		}
+		if (others.length != 0) {
+			Vector3 point = new Vector3(x, y, z);
+			for (ScalarField f : others) {
+				value += f.getValue(point);
+				if (gradient != null) {
+					Vector3 g = f.gradient(point);
+					gx += g.x;
+					gy += g.y;
+					gz += g.z;
+				}
+			}
+		}
+		if (gradient != null) {
+			gradient[0] = gx;
+			gradient[1] = gy;
+			gradient[2] = gz;
+		}
+		return value;
+	}
+
+	/**
+	 * The laplacian of this field at a point, the sum of its second derivatives.
+	 */
+	double laplacian(double x, double y, double z) {
+		double sum = 0;
+		for (int i = 0; i < kinds.length; i++) {
+			double e = exponents[i];
+			if (e == 0) {
+				continue;
+			}
+			if (kinds[i] == 3) { // laplacian of r^e is e*(e+1)*r^(e-2), which is 2/r for r itself
+				sum += coefficients[i] * e * (e + 1) * power(Math.sqrt(x * x + y * y + z * z), e - 2, integral[i]);
+			} else if (e != 1) { // a single coordinate to the first power has no second derivative
+				double coord = kinds[i] == 0 ? x : kinds[i] == 1 ? y : z;
+				sum += coefficients[i] * e * (e - 1) * power(coord, e - 2, integral[i]);
+			}
+		}
+		if (others.length != 0) {
+			Vector3 point = new Vector3(x, y, z);
+			for (ScalarField f : others) {
+				sum -= f.toVectorField().divergence(point); // the force field is the negative gradient
+			}
+		}
+		return sum;
+	}
+
+	private static double power(double base, double exponent, boolean integral) {
+		if (!integral) {
+			return Math.pow(base, exponent);
+		}
+		int n = (int) exponent;
+		boolean inverse = n < 0;
+		n = Math.abs(n);
+		double result = 1;
+		while (n != 0) { // exponentiation by squaring
+			if ((n & 1) != 0) {
+				result *= base;
+			}
+			base *= base;
+			n >>= 1;
+		}
+		return inverse ? 1 / result : result;
+	}
+
+	@Override
+	public double getValue(Vector3 point) {
+		return evaluate(point.x, point.y, point.z, null);
+	}
+
+	@Override
+	public Vector3 gradient(Vector3 point) {
+		double[] g = new double[3];
+		evaluate(point.x, point.y, point.z, g);
+		return new Vector3(g[0], g[1], g[2]);
+	}
+
+	@Override
+	public VectorField toVectorField() {
+		return new NegativeGradient(this);
+	}
+
+	/**
+	 * The force field of a compiled potential.
+	 */
+	private static final class NegativeGradient extends AbstractVectorField {
+		private final CompiledScalarField potential;
+
+		NegativeGradient(CompiledScalarField potential) {
+			this.potential = potential;
+		}
+
+		@Override
+		public Vector3 getValue(Vector3 point) {
+			return potential.gradient(point).inverse();
+		}
+
+		@Override
+		public void addValues(double[] points, Vector3 origin, int from, int to, double[] out) {
+			double[] g = new double[3];
+			for (int i = from; i < to; i++) {
+				potential.evaluate(points[3*i] - origin.x, points[3*i+1] - origin.y, points[3*i+2] - origin.z, g);
+				out[3*i] -= g[0];
+				out[3*i+1] -= g[1];
+				out[3*i+2] -= g[2];
+			}
+		}
+
+		@Override
+		public Vector3 curl(Vector3 point) {
+			return Vector3.zero; // the gradient of any scaler field has no curl
+		}
+
+		@Override
+		public double divergence(Vector3 point) {
+			return -potential.laplacian(point.x, point.y, point.z);
+		}
+	}
+
+}
@@ -0,0 +1,79 @@
+package com.jacobschneider.engine.math.vectorcalc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jacobschneider.engine.framework.ScalarField;
+
+/**
+ * Flattens scaler fields built out of sums into a single {@link CompiledScalarField}.
+ * Terms of {@link CartesianScalarField}, {@link CentralPotential} and radial {@link SphericalScalarField} fields are
+ * merged when they share an axis and exponent, so a long chain of {@link ScalarField#add(ScalarField)} calls is
+ * evaluated in one loop. Any other field in the sum is kept as it is and evaluated through its own methods.
+ *
+ * @author Jacob
+ *
+ */
+public final class FieldCompiler {
+	private static final int X = 0, Y = 1, Z = 2, CENTRAL = 3;
+
+	private FieldCompiler() {}
+
+	/**
+	 * Compiles a scaler field. Fields that are not sums and cannot be made faster are returned as they are.
+	 * @param field the field to compile
+	 * @return a field with the same value, gradient and force field everywhere
+	 */
+	public static ScalarField compile(ScalarField field) {
+		if (field instanceof CompiledScalarField || field instanceof CentralPotential) {
+			return field;
+		}
+		List<double[]> terms = new ArrayList<double[]>(); // {kind, coefficient, exponent}
+		List<ScalarField> others = new ArrayList<ScalarField>();
+		flatten(field, terms, others);
+		if (terms.isEmpty() && others.size() == 1) {
+			return others.get(0);
+		}
+		return new CompiledScalarField(terms, others);
+	}
+
+	private static void flatten(ScalarField field, List<double[]> terms, List<ScalarField> others) {
+		if (field instanceof SumScalarField) {
+			SumScalarField sum = (SumScalarField) field;
+			flatten(sum.a, terms, others);
+			flatten(sum.b, terms, others);
+		} else if (field instanceof CompiledScalarField) {
+			((CompiledScalarField) field).decompile(terms, others);
+		} else if (field instanceof CartesianScalarField) {
+			CartesianScalarField c = (CartesianScalarField) field;
+			addTerm(terms, X, c.A, c.a);
+			addTerm(terms, Y, c.B, c.b);
+			addTerm(terms, Z, c.C, c.c);
+		} else if (field instanceof SphericalScalarField && ((SphericalScalarField) field).isRadial()) {
+			SphericalScalarField s = (SphericalScalarField) field;
+			addTerm(terms, CENTRAL, s.A, s.a);
+		} else if (field instanceof CentralPotential) {
+			CentralPotential c = (CentralPotential) field;
+			addTerm(terms, CENTRAL, -c.getStrength(), c.getPower());
+		} else {
+			others.add(field);
+		}
+	}
+
+	/**
+	 * Adds coefficient * coordinate^exponent to the terms, merging it with a term of the same kind and exponent.
+	 */
+	static void addTerm(List<double[]> terms, int kind, double coefficient, double exponent) {
+		if (coefficient == 0) {
+			return;
+		}
+		for (double[] t : terms) {
+			if (t[0] == kind && t[2] == exponent) {
+				t[1] += coefficient;
+				return;
+			}
+		}
+		terms.add(new double[] {kind, coefficient, exponent});
+	}
+
+}
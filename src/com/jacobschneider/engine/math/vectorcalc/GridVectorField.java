@@ -0,0 +1,437 @@
+package com.jacobschneider.engine.math.vectorcalc;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import com.jacobschneider.engine.framework.VectorField;
+import com.jacobschneider.engine.math.Vector3;
+
+/**
+ * A vector field sampled on a regular 3D grid over a box and evaluated with trilinear interpolation.
+ * Baking a field that is expensive to evaluate, such as a long sum of potentials, makes every later evaluation cost
+ * the same few dozen operations. Points outside of the box are passed to an outside field instead, which is the
+ * original field when the grid was made with one of the bake methods.
+ *
+ * The samples can be stored in three ways:
+ * <ul>
+ * <li>{@link #bake(VectorField, Vector3, Vector3, double)} keeps every sample in one array.</li>
+ * <li>{@link #bakeSparse(VectorField, Vector3, Vector3, double)} splits the grid into blocks and does not store blocks
+ * where the field is zero, for fields that only act on part of the box.</li>
+ * <li>{@link #bake(VectorField, Vector3, Vector3, double, File)} writes the samples to a file and memory maps it, so
+ * large grids do not have to fit in the heap and can be reopened with {@link #load(File, VectorField)}.</li>
+ * </ul>
+ *
+ * @author Jacob
+ *
+ */
+public final class GridVectorField extends AbstractVectorField {
+	private static final int MAGIC = 0x45334447; // "E3DG"
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 6 * 4 + 6 * 8; // magic, version, number of samples along x, y, z, padding, min, max
+	private static final int BLOCK = 8; // number of samples along each side of a sparse block
+
+	private final Vector3 min;
+	private final Vector3 max;
+	private final int nx, ny, nz; // number of samples along each axis
+	private final double dx, dy, dz; // distance between samples along each axis
+	private final Samples samples;
+	private final VectorField outside; // evaluated outside of the box, null for a zero field
+
+	private GridVectorField(Vector3 min, Vector3 max, int[] counts, Samples samples, VectorField outside) {
+		this.min = min;
+		this.max = max;
+		this.nx = counts[0];
+		this.ny = counts[1];
+		this.nz = counts[2];
+		this.dx = (max.x - min.x) / (nx - 1);
+		this.dy = (max.y - min.y) / (ny - 1);
+		this.dz = (max.z - min.z) / (nz - 1);
+		this.samples = samples;
+		this.outside = outside;
+	}
+
+	/**
+	 * Samples a field over a box and keeps every sample in memory.
+	 * @param field the field to sample, also used for every point outside of the box
+	 * @param min the lowest corner of the box
+	 * @param max the highest corner of the box
+	 * @param spacing the largest distance between neighbouring samples
+	 * @return the sampled field
+	 */
+	public static GridVectorField bake(VectorField field, Vector3 min, Vector3 max, double spacing) {
+		int[] counts = counts(min, max, spacing);
+		DenseSamples samples = new DenseSamples(new double[3 * counts[0] * counts[1] * counts[2]], counts);
+		GridVectorField grid = new GridVectorField(min, max, counts, samples, field);
+		grid.fill(field, samples.data);
+		return grid;
+	}
+
+	/**
+	 * Samples a field over a box in blocks of 8x8x8 samples. Blocks where every sample is zero are not stored.
+	 * @param field the field to sample, also used for every point outside of the box
+	 * @param min the lowest corner of the box
+	 * @param max the highest corner of the box
+	 * @param spacing the largest distance between neighbouring samples
+	 * @return the sampled field
+	 */
+	public static GridVectorField bakeSparse(VectorField field, Vector3 min, Vector3 max, double spacing) {
+		int[] counts = counts(min, max, spacing);
+		SparseSamples samples = new SparseSamples(counts);
+		GridVectorField grid = new GridVectorField(min, max, counts, samples, field);
+		double[] point = new double[3];
+		double[] value = new double[3];
+		for (int bk = 0; bk < samples.bz; bk++) {
+			for (int bj = 0; bj < samples.by; bj++) {
+				for (int bi = 0; bi < samples.bx; bi++) {
+					double[] block = new double[3 * BLOCK * BLOCK * BLOCK];
+					boolean zero = true;
+					for (int k = bk * BLOCK; k < Math.min(grid.nz, (bk + 1) * BLOCK); k++) {
+						for (int j = bj * BLOCK; j < Math.min(grid.ny, (bj + 1) * BLOCK); j++) {
+							for (int i = bi * BLOCK; i < Math.min(grid.nx, (bi + 1) * BLOCK); i++) {
+								grid.position(i, j, k, point);
+								value[0] = value[1] = value[2] = 0;
+								field.addValues(point, Vector3.zero, 0, 1, value);
+								int index = SparseSamples.indexInBlock(i, j, k);
+								block[index] = value[0];
+								block[index + 1] = value[1];
+								block[index + 2] = value[2];
+								zero &= value[0] == 0 && value[1] == 0 && value[2] == 0;
+							}
+						}
+					}
+					if (!zero) {
+						samples.blocks[samples.blockIndex(bi, bj, bk)] = block;
+					}
+				}
+			}
+		}
+		return grid;
+	}
+
+	/**
+	 * Samples a field over a box into a file, which is memory mapped. Any existing file is overwritten.
+	 * @param field the field to sample, also used for every point outside of the box
+	 * @param min the lowest corner of the box
+	 * @param max the highest corner of the box
+	 * @param spacing the largest distance between neighbouring samples
+	 * @param file the file to store the samples in
+	 * @return the sampled field
+	 * @throws IOException if the file cannot be written
+	 */
+	public static GridVectorField bake(VectorField field, Vector3 min, Vector3 max, double spacing, File file) throws IOException {
+		int[] counts = counts(min, max, spacing);
+		long size = HEADER_BYTES + 24L * counts[0] * counts[1] * counts[2];
+		if (size > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("A grid of " + counts[0] + "x" + counts[1] + "x" + counts[2] + " samples is too large to map");
+		}
+		MappedByteBuffer buf;
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.setLength(0);
+			raf.setLength(size);
+			buf = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+		}
+		buf.putInt(MAGIC);
+		buf.putInt(VERSION);
+		buf.putInt(counts[0]);
+		buf.putInt(counts[1]);
+		buf.putInt(counts[2]);
+		buf.putInt(0); // keeps the samples 8 byte aligned
+		putVector(buf, min);
+		putVector(buf, max);
+		DoubleBuffer data = buf.asDoubleBuffer();
+		GridVectorField grid = new GridVectorField(min, max, counts, new MappedSamples(data, counts), field);
+		double[] row = new double[3 * counts[0]];
+		for (int k = 0; k < counts[2]; k++) {
+			for (int j = 0; j < counts[1]; j++) {
+				grid.fill(field, row, j, k);
+				data.put(row);
+			}
+		}
+		buf.force();
+		return grid;
+	}
+
+	/**
+	 * Memory maps a file written by {@link #bake(VectorField, Vector3, Vector3, double, File)}.
+	 * @param file the file holding the samples
+	 * @param outside the field to use outside of the box, or null for a field of zero
+	 * @return the sampled field
+	 * @throws IOException if the file cannot be read or is not a baked grid
+	 */
+	public static GridVectorField load(File file, VectorField outside) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			FileChannel channel = raf.getChannel();
+			MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buf.remaining() < HEADER_BYTES || buf.getInt() != MAGIC) {
+				throw new IOException(file + " is not a baked grid");
+			}
+			int version = buf.getInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported baked grid version: " + version);
+			}
+			int[] counts = {buf.getInt(), buf.getInt(), buf.getInt()};
+			buf.getInt();
+			Vector3 min = getVector(buf);
+			Vector3 max = getVector(buf);
+			if (buf.remaining() != 24L * counts[0] * counts[1] * counts[2]) {
+				throw new IOException(file + " does not hold every sample of its grid");
+			}
+			return new GridVectorField(min, max, counts, new MappedSamples(buf.asDoubleBuffer(), counts), outside);
+		}
+	}
+
+	/**
+	 * The number of samples along each axis needed so that neighbouring samples are at most spacing apart.
+	 */
+	private static int[] counts(Vector3 min, Vector3 max, double spacing) {
+		if (!(spacing > 0)) {
+			throw new IllegalArgumentException("The spacing between samples must be positive");
+		}
+		if (!(max.x > min.x && max.y > min.y && max.z > min.z)) {
+			throw new IllegalArgumentException("max must be greater than min along every axis");
+		}
+		int[] counts = {(int) Math.ceil((max.x - min.x) / spacing) + 1, (int) Math.ceil((max.y - min.y) / spacing) + 1,
+				(int) Math.ceil((max.z - min.z) / spacing) + 1};
+		if ((long) counts[0] * counts[1] * counts[2] * 3 > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("A spacing of " + spacing + " needs too many samples");
+		}
+		return counts;
+	}
+
+	/**
+	 * Samples the field at every grid point into a dense array, one row of samples along x at a time.
+	 */
+	private void fill(VectorField field, double[] data) {
+		double[] row = new double[3 * nx];
+		for (int k = 0; k < nz; k++) {
+			for (int j = 0; j < ny; j++) {
+				fill(field, row, j, k);
+				System.arraycopy(row, 0, data, 3 * nx * (k * ny + j), row.length);
+			}
+		}
+	}
+
+	/**
+	 * Samples the field along the row of grid points with indices j and k.
+	 */
+	private void fill(VectorField field, double[] row, int j, int k) {
+		double[] points = new double[3 * nx];
+		double y = j == ny - 1 ? max.y : min.y + j * dy;
+		double z = k == nz - 1 ? max.z : min.z + k * dz;
+		for (int i = 0; i < nx; i++) {
+			points[3*i] = i == nx - 1 ? max.x : min.x + i * dx;
+			points[3*i+1] = y;
+			points[3*i+2] = z;
+		}
+		Arrays.fill(row, 0);
+		field.addValues(points, Vector3.zero, 0, nx, row);
+	}
+
+	private void position(int i, int j, int k, double[] point) {
+		point[0] = i == nx - 1 ? max.x : min.x + i * dx;
+		point[1] = j == ny - 1 ? max.y : min.y + j * dy;
+		point[2] = k == nz - 1 ? max.z : min.z + k * dz;
+	}
+
+	/**
+	 * Interpolates the samples around a point and adds the result to out[offset], out[offset + 1] and out[offset + 2].
+	 * @param corners scratch space for the 8 samples around the point
+	 * @return false if the point is outside of the box, in which case nothing is added
+	 */
+	private boolean addSample(double x, double y, double z, double[] corners, double[] out, int offset) {
+		double u = (x - min.x) / dx, v = (y - min.y) / dy, w = (z - min.z) / dz;
+		if (!(u >= 0 && v >= 0 && w >= 0 && u <= nx - 1 && v <= ny - 1 && w <= nz - 1)) { // also catches NaN
+			return false;
+		}
+		int i = Math.min((int) u, nx - 2), j = Math.min((int) v, ny - 2), k = Math.min((int) w, nz - 2);
+		double fu = u - i, fv = v - j, fw = w - k;
+		samples.gather(i, j, k, corners);
+		for (int c = 0; c < 3; c++) { // corner (di, dj, dk) is at 3 * (4dk + 2dj + di)
+			double c00 = corners[c] * (1 - fu) + corners[3 + c] * fu;
+			double c10 = corners[6 + c] * (1 - fu) + corners[9 + c] * fu;
+			double c01 = corners[12 + c] * (1 - fu) + corners[15 + c] * fu;
+			double c11 = corners[18 + c] * (1 - fu) + corners[21 + c] * fu;
+			double c0 = c00 * (1 - fv) + c10 * fv;
+			double c1 = c01 * (1 - fv) + c11 * fv;
+			out[offset + c] += c0 * (1 - fw) + c1 * fw;
+		}
+		return true;
+	}
+
+	/**
+	 * @return the lowest corner of the sampled box
+	 */
+	public Vector3 getMin() {
+		return min;
+	}
+
+	/**
+	 * @return the highest corner of the sampled box
+	 */
+	public Vector3 getMax() {
+		return max;
+	}
+
+	@Override
+	public Vector3 getValue(Vector3 point) {
+		double[] value = new double[3];
+		if (addSample(point.x, point.y, point.z, new double[24], value, 0)) {
+			return new Vector3(value[0], value[1], value[2]);
+		}
+		return outside == null ? Vector3.zero : outside.getValue(point);
+	}
+
+	@Override
+	public void addValues(double[] points, Vector3 origin, int from, int to, double[] out) {
+		double[] corners = new double[24];
+		for (int i = from; i < to; i++) {
+			if (!addSample(points[3*i] - origin.x, points[3*i+1] - origin.y, points[3*i+2] - origin.z, corners, out, 3 * i) && outside != null) {
+				outside.addValues(points, origin, i, i + 1, out);
+			}
+		}
+	}
+
+	/**
+	 * Estimated from the differences between neighbouring samples.
+	 */
+	@Override
+	public Vector3 curl(Vector3 point) {
+		if (outside != null && !inside(point)) {
+			return outside.curl(point);
+		}
+		Vector3 ddx = derivative(point, new Vector3(dx, 0, 0));
+		Vector3 ddy = derivative(point, new Vector3(0, dy, 0));
+		Vector3 ddz = derivative(point, new Vector3(0, 0, dz));
+		return new Vector3(ddy.z - ddz.y, ddz.x - ddx.z, ddx.y - ddy.x);
+	}
+
+	/**
+	 * Estimated from the differences between neighbouring samples.
+	 */
+	@Override
+	public double divergence(Vector3 point) {
+		if (outside != null && !inside(point)) {
+			return outside.divergence(point);
+		}
+		return derivative(point, new Vector3(dx, 0, 0)).x + derivative(point, new Vector3(0, dy, 0)).y
+				+ derivative(point, new Vector3(0, 0, dz)).z;
+	}
+
+	private boolean inside(Vector3 p) {
+		return p.x >= min.x && p.y >= min.y && p.z >= min.z && p.x <= max.x && p.y <= max.y && p.z <= max.z;
+	}
+
+	/**
+	 * The central difference of the field along step, divided by the length of step.
+	 */
+	private Vector3 derivative(Vector3 point, Vector3 step) {
+		return getValue(point.add(step)).subtract(getValue(point.subtract(step))).multScaler(0.5 / step.mag());
+	}
+
+	private static void putVector(MappedByteBuffer buf, Vector3 v) {
+		buf.putDouble(v.x);
+		buf.putDouble(v.y);
+		buf.putDouble(v.z);
+	}
+
+	private static Vector3 getVector(MappedByteBuffer buf) {
+		return new Vector3(buf.getDouble(), buf.getDouble(), buf.getDouble());
+	}
+
+	/**
+	 * The samples of a grid.
+	 */
+	private static abstract class Samples {
+		/**
+		 * Copies the 8 samples at grid points (i, j, k) to (i + 1, j + 1, k + 1). Sample (i + di, j + dj, k + dk)
+		 * goes to index 3 * (4dk + 2dj + di).
+		 */
+		abstract void gather(int i, int j, int k, double[] corners);
+	}
+
+	private static final class DenseSamples extends Samples {
+		private final double[] data;
+		private final int nx, ny;
+
+		DenseSamples(double[] data, int[] counts) {
+			this.data = data;
+			this.nx = counts[0];
+			this.ny = counts[1];
+		}
+
+		@Override
+		void gather(int i, int j, int k, double[] corners) {
+			for (int dk = 0; dk < 2; dk++) {
+				for (int dj = 0; dj < 2; dj++) {
+					int index = 3 * (((k + dk) * ny + j + dj) * nx + i);
+					int to = 3 * (4 * dk + 2 * dj);
+					for (int c = 0; c < 6; c++) { // the two samples along x are next to each other
+						corners[to + c] = data[index + c];
+					}
+				}
+			}
+		}
+	}
+
+	private static final class MappedSamples extends Samples {
+		private final DoubleBuffer data;
+		private final int nx, ny;
+
+		MappedSamples(DoubleBuffer data, int[] counts) {
+			this.data = data;
+			this.nx = counts[0];
+			this.ny = counts[1];
+		}
+
+		@Override
+		void gather(int i, int j, int k, double[] corners) {
+			for (int dk = 0; dk < 2; dk++) {
+				for (int dj = 0; dj < 2; dj++) {
+					int index = 3 * (((k + dk) * ny + j + dj) * nx + i);
+					int to = 3 * (4 * dk + 2 * dj);
+					for (int c = 0; c < 6; c++) {
+						corners[to + c] = data.get(index + c);
+					}
+				}
+			}
+		}
+	}
+
+	private static final class SparseSamples extends Samples {
+		private final double[][] blocks; // null for a block of zeros
+		private final int bx, by, bz; // number of blocks along each axis
+
+		SparseSamples(int[] counts) {
+			this.bx = (counts[0] + BLOCK - 1) / BLOCK;
+			this.by = (counts[1] + BLOCK - 1) / BLOCK;
+			this.bz = (counts[2] + BLOCK - 1) / BLOCK;
+			this.blocks = new double[bx * by * bz][];
+		}
+
+		int blockIndex(int bi, int bj, int bk) {
+			return (bk * by + bj) * bx + bi;
+		}
+
+		static int indexInBlock(int i, int j, int k) {
+			return 3 * (((k % BLOCK) * BLOCK + (j % BLOCK)) * BLOCK + (i % BLOCK));
+		}
+
+		@Override
+		void gather(int i, int j, int k, double[] corners) {
+			for (int d = 0; d < 8; d++) { // neighbouring samples can be in different blocks
+				int ci = i + (d & 1), cj = j + ((d >> 1) & 1), ck = k + (d >> 2);
+				double[] block = blocks[blockIndex(ci / BLOCK, cj / BLOCK, ck / BLOCK)];
+				int index = indexInBlock(ci, cj, ck);
+				for (int c = 0; c < 3; c++) {
+					corners[3 * d + c] = block == null ? 0 : block[index + c];
+				}
+			}
+		}
+	}
+
+}
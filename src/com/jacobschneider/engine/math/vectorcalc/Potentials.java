@@ -29,7 +29,7 @@ public class Potentials {
 	 * @return the resulting central force potential field
 	 */
 	public static ScalarField centralForce(double strength, int power) {
-		return new SphericalScalarField(new double[] {-strength, 0, 0}, new double[] {power, -2, -2});
+		return new CentralPotential(strength, power);
 	}
 	
 
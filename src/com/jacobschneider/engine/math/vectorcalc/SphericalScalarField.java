@@ -1,7 +1,9 @@
 package com.jacobschneider.engine.math.vectorcalc;
 
+import com.jacobschneider.engine.framework.Manifold;
 import com.jacobschneider.engine.framework.VectorField;
 import com.jacobschneider.engine.math.Vector3;
+import com.jacobschneider.engine.math.geometry.SphereManifold;
 
 /**
  * A generic scaler field in the spherical coordinate system (r, phi, theta).
@@ -17,10 +19,8 @@ import com.jacobschneider.engine.math.Vector3;
  */
 
 public class SphericalScalarField extends AbstractScalarField {
-	private static final int NULL_EXPONENT = 10; // when the coefficient is zero the exponent does not matter as long as it does not equal 0 or -1
-	
-	private final double A,B,C; // coefficients
-	private final double a,b,c; // exponents
+	final double A,B,C; // coefficients, package-private so FieldCompiler can read them
+	final double a,b,c; // exponents
 	
 	/**
 	 * Creates a scaler field of the form
@@ -39,11 +39,6 @@ public class SphericalScalarField extends AbstractScalarField {
 		if (exponents.length != 3) {
 			throw new IllegalArgumentException("Exponents array must have 3 values. Consider using a value of zero.");
 		}	
-		for (double d : exponents) {
-			if (d == 1.0 || d == 0.0) {
-				throw new IllegalArgumentException("You cannot currently enter an exponent equal to one or zero");
-			}
-		}
 
 		this.A = coefficients[0];
 		this.B = coefficients[1];
@@ -76,29 +71,121 @@ public class SphericalScalarField extends AbstractScalarField {
 		return new Vector3(x, y, z);		
 	}
 
+	/**
+	 * @return true if this field only depends on r
+	 */
+	public boolean isRadial() {
+		return B == 0 && C == 0;
+	}
+
+	/**
+	 * The level sets of a field that only depends on r are spheres around the origin and are found in closed form.
+	 */
+	@Override
+	public Manifold toManifold(double potential) {
+		if (!isRadial()) {
+			return super.toManifold(potential);
+		}
+		double radius = Math.pow(potential / A, 1 / a);
+		if (!(radius > 0) || Double.isInfinite(radius)) {
+			throw new IllegalArgumentException("This field never has a potential of " + potential);
+		}
+		return new SphereManifold(Vector3.zero, radius);
+	}
+
+	/**
+	 * coefficient * coordinate^exponent, where a zero coefficient always gives zero even at a singularity of the power.
+	 */
+	private static double term(double coefficient, double coordinate, double exponent) {
+		return coefficient == 0 ? 0 : coefficient * Math.pow(coordinate, exponent);
+	}
+
 	@Override
 	public double getValue(Vector3 point) {
-		double[] coords = getSphericalCoords(point);
-		System.out.println("*******");
-		System.out.println(B);
-		System.out.println(b);
-		System.out.println(Math.pow(coords[1], b));
-		System.out.println("*******");
-		return A * Math.pow(coords[0], a) + B * Math.pow(coords[1], b) + C * Math.pow(coords[2], c);
+		double r = point.mag();
+		double value = term(A, r, a);
+		if (B != 0) {
+			value += term(B, Math.atan2(point.y, point.x), b);
+		}
+		if (C != 0) {
+			value += term(C, Math.acos(point.z / r), c);
+		}
+		return value;
 	}
 
 	@Override
 	public Vector3 gradient(Vector3 point) {
-		double[] coords = getSphericalCoords(point);
-		double[] spherCoords = new double[] {dfdr(coords), dfdphi(coords) / (coords[0] * Math.sin(coords[2])), dfdtheta(coords) / coords[0]};
-		return getCartesianCoords(spherCoords);
+		return gradient(point.x, point.y, point.z, 1);
 	}
 
+	/**
+	 * The gradient of this field at a point times a scale. The derivatives along r, phi and theta are combined with the
+	 * unit vectors of the spherical coordinate system at the point.
+	 */
+	Vector3 gradient(double x, double y, double z, double scale) {
+		double r = Math.sqrt(x * x + y * y + z * z);
+		double dfdr = term(a * A, r, a - 1);
+		double gx = dfdr * x / r, gy = dfdr * y / r, gz = dfdr * z / r; // r hat = (x, y, z) / r
+		if (B != 0 || C != 0) {
+			double rho = Math.sqrt(x * x + y * y); // r * sin(theta)
+			double cosPhi = x / rho, sinPhi = y / rho;
+			if (B != 0) { // phi hat = (-sin(phi), cos(phi), 0), scaled by 1 / (r sin(theta))
+				double dfdphi = term(b * B, Math.atan2(y, x), b - 1) / rho;
+				gx -= dfdphi * sinPhi;
+				gy += dfdphi * cosPhi;
+			}
+			if (C != 0) { // theta hat = (cos(theta) cos(phi), cos(theta) sin(phi), -sin(theta)), scaled by 1 / r
+				double dfdtheta = term(c * C, Math.acos(z / r), c - 1) / r;
+				double cosTheta = z / r, sinTheta = rho / r;
+				gx += dfdtheta * cosTheta * cosPhi;
+				gy += dfdtheta * cosTheta * sinPhi;
+				gz -= dfdtheta * sinTheta;
+			}
+		}
+		return new Vector3(scale * gx, scale * gy, scale * gz);
+	}
+
+	/**
+	 * Fields that only depend on r with an integer exponent become a {@link CentralForceField}.
+	 */
 	@Override
 	public VectorField toVectorField() {
-		return new SphericalVectorField(new SphericalScalarField(new double[] {-a * A, 0, 0}, new double[] {a - 1, NULL_EXPONENT, NULL_EXPONENT}),
-				new SphericalScalarField(new double[] {NULL_EXPONENT, -b * B, NULL_EXPONENT}, new double[] {NULL_EXPONENT, b - 1, NULL_EXPONENT}),
-				new SphericalScalarField(new double[] {NULL_EXPONENT, NULL_EXPONENT, -c * C}, new double[] {NULL_EXPONENT, NULL_EXPONENT, c - 1}));
+		if (isRadial() && a == Math.rint(a) && Math.abs(a) < Integer.MAX_VALUE) {
+			return new CentralForceField(-a * A, (int) a - 1);
+		}
+		final SphericalScalarField potential = this;
+		return new AbstractVectorField() {
+			@Override
+			public Vector3 getValue(Vector3 point) {
+				return potential.gradient(point.x, point.y, point.z, -1);
+			}
+
+			@Override
+			public Vector3 curl(Vector3 point) {
+				return Vector3.zero; // the gradient of any scaler field has no curl
+			}
+
+			@Override
+			public double divergence(Vector3 point) {
+				return -potential.laplacian(point);
+			}
+		};
+	}
+
+	/**
+	 * The laplacian of this field at a point, the sum of its second derivatives.
+	 * @param point the point in Cartesian coordinates
+	 * @return the resulting laplacian
+	 */
+	public double laplacian(Vector3 point) {
+		double[] coords = getSphericalCoords(point);
+		double r = coords[0], phi = coords[1], theta = coords[2];
+		double sinTheta = Math.sin(theta);
+		double lap = term(a * (a + 1) * A, r, a - 2); // (1/r^2) d(r^2 df/dr)/dr
+		lap += term(b * (b - 1) * B, phi, b - 2) / (r * r * sinTheta * sinTheta); // (1/(r^2 sin^2(theta))) d^2f/dphi^2
+		// (1/(r^2 sin(theta))) d(sin(theta) df/dtheta)/dtheta
+		lap += (Math.cos(theta) * term(c * C, theta, c - 1) + sinTheta * term(c * (c - 1) * C, theta, c - 2)) / (r * r * sinTheta);
+		return lap;
 	}
 	
 	/**
@@ -107,7 +194,7 @@ public class SphericalScalarField extends AbstractScalarField {
 	 * @return the resulting derivative
 	 */
 	public double dfdr(double[] spherCoords) {
-		return a * A * Math.pow(spherCoords[0], a-1);
+		return term(a * A, spherCoords[0], a - 1);
 	}
 	
 	/**
@@ -116,7 +203,7 @@ public class SphericalScalarField extends AbstractScalarField {
 	 * @return the resulting derivative
 	 */
 	public double dfdtheta(double[] spherCoords) {		
-		return c * C * Math.pow(spherCoords[2], c-1);
+		return term(c * C, spherCoords[2], c - 1);
 	}
 	
 	/**
@@ -125,7 +212,7 @@ public class SphericalScalarField extends AbstractScalarField {
 	 * @return the resulting derivative
 	 */
 	public double dfdphi(double[] spherCoords) {
-		return b * B * Math.pow(spherCoords[1], b-1);
+		return term(b * B, spherCoords[1], b - 1);
 	}
 	
 	/**
@@ -134,7 +221,7 @@ public class SphericalScalarField extends AbstractScalarField {
 	 * @return the resulting value
 	 */
 	public double drfdr(double[] spherCoords) {
-		return (a+1) * A * Math.pow(spherCoords[0], a);		
+		return term((a + 1) * A, spherCoords[0], a) + term(B, spherCoords[1], b) + term(C, spherCoords[2], c);
 	}
 	
 	/**
@@ -143,7 +230,8 @@ public class SphericalScalarField extends AbstractScalarField {
 	 * @return the resulting value
 	 */
 	public double dr2fdr(double[] spherCoords) {
-		return (a+2) * A * Math.pow(spherCoords[0], a + 1);		
+		double r = spherCoords[0];
+		return term((a + 2) * A, r, a + 1) + 2 * r * (term(B, spherCoords[1], b) + term(C, spherCoords[2], c));
 	}
 	
 	/**
@@ -153,8 +241,8 @@ public class SphericalScalarField extends AbstractScalarField {
 	 */
 	public double dsinthetafdtheta(double[] spherCoords) {
 		double cosTheta = Math.cos(spherCoords[2]);
-		return A * cosTheta * Math.pow(spherCoords[0], a) + B * cosTheta * Math.pow(spherCoords[1], b) + 
-				C * cosTheta * Math.pow(spherCoords[2], c) + c * C * Math.sin(spherCoords[2]) * Math.pow(spherCoords[2], c - 1);
+		return cosTheta * (term(A, spherCoords[0], a) + term(B, spherCoords[1], b) + term(C, spherCoords[2], c)) +
+				Math.sin(spherCoords[2]) * term(c * C, spherCoords[2], c - 1);
 	}
 	
 
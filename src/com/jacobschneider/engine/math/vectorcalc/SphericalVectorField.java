@@ -2,40 +2,68 @@ package com.jacobschneider.engine.math.vectorcalc;
 
 import com.jacobschneider.engine.math.Vector3;
 
+/**
+ * A vector field whose components along the unit vectors of the spherical coordinate system (r hat, phi hat, theta hat)
+ * are each a {@link SphericalScalarField}.
+ *
+ * @author Jacob
+ *
+ */
 public class SphericalVectorField extends AbstractVectorField {
-	
-	public final SphericalScalarField x;
-	public final SphericalScalarField y;
-	public final SphericalScalarField z;
-	
+
+	public final SphericalScalarField x; // component along r hat
+	public final SphericalScalarField y; // component along phi hat
+	public final SphericalScalarField z; // component along theta hat
+
+	/**
+	 * Creates a vector field from its spherical components.
+	 * @param xComp the component along r hat
+	 * @param yComp the component along phi hat
+	 * @param zComp the component along theta hat
+	 */
 	public SphericalVectorField(SphericalScalarField xComp, SphericalScalarField yComp, SphericalScalarField zComp) {
 		this.x = xComp;
 		this.y = yComp;
-		this.z = zComp;		
+		this.z = zComp;
 	}
 
 	@Override
 	public Vector3 getValue(Vector3 point) {
-		System.out.println(point);
-		System.out.println(SphericalScalarField.getSphericalCoords(point)[0]);
-		System.out.println(SphericalScalarField.getSphericalCoords(point)[1]);
-		System.out.println(SphericalScalarField.getSphericalCoords(point)[2]);
-		System.out.println(new Vector3(x.getValue(point), y.getValue(point), z.getValue(point)));
-		System.out.println(SphericalScalarField.getCartesianCoords(new double[] {x.getValue(point), y.getValue(point), z.getValue(point)}));
-		throw new IllegalStateException();
-		//return new Vector3(x.getValue(point), y.getValue(point), z.getValue(point));
+		return toCartesian(point, x.getValue(point), y.getValue(point), z.getValue(point));
 	}
 
 	@Override
 	public Vector3 curl(Vector3 point) {
 		double[] spherCoords = SphericalScalarField.getSphericalCoords(point);
-		throw new UnsupportedOperationException("Not yet implemented");
+		double r = spherCoords[0];
+		double sinTheta = Math.sin(spherCoords[2]);
+		double curlR = (y.dsinthetafdtheta(spherCoords) - z.dfdphi(spherCoords)) / (r * sinTheta);
+		double curlPhi = (z.drfdr(spherCoords) - x.dfdtheta(spherCoords)) / r;
+		double curlTheta = (x.dfdphi(spherCoords) / sinTheta - y.drfdr(spherCoords)) / r;
+		return toCartesian(point, curlR, curlPhi, curlTheta);
 	}
 
 	@Override
 	public double divergence(Vector3 point) {
 		double[] spherCoords = SphericalScalarField.getSphericalCoords(point);
-		throw new UnsupportedOperationException("Not yet implemented");
+		double r = spherCoords[0];
+		double sinTheta = Math.sin(spherCoords[2]);
+		return x.dr2fdr(spherCoords) / (r * r) + (y.dfdphi(spherCoords) + z.dsinthetafdtheta(spherCoords)) / (r * sinTheta);
+	}
+
+	/**
+	 * Converts components along r hat, phi hat and theta hat at a point into a Cartesian vector.
+	 */
+	private static Vector3 toCartesian(Vector3 point, double vr, double vphi, double vtheta) {
+		double r = point.mag();
+		double rho = Math.sqrt(point.x * point.x + point.y * point.y); // r * sin(theta)
+		double cosPhi = rho == 0 ? 1 : point.x / rho;
+		double sinPhi = rho == 0 ? 0 : point.y / rho;
+		double cosTheta = point.z / r;
+		double sinTheta = rho / r;
+		return new Vector3(vr * sinTheta * cosPhi + vtheta * cosTheta * cosPhi - vphi * sinPhi,
+				vr * sinTheta * sinPhi + vtheta * cosTheta * sinPhi + vphi * cosPhi,
+				vr * cosTheta - vtheta * sinTheta);
 	}
 
 }
@@ -11,8 +11,8 @@ import com.jacobschneider.engine.math.Vector3;
  *
  */
 public class SumScalarField extends AbstractScalarField {
-	private final ScalarField a;
-	private final ScalarField b;
+	final ScalarField a; // package-private so FieldCompiler can flatten sums
+	final ScalarField b;
 	
 	/**
 	 * Creates a new vector field that represents the scaler addition
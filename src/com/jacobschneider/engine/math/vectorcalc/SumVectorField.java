@@ -28,6 +28,12 @@ public final class SumVectorField extends AbstractVectorField {
 	public Vector3 getValue(Vector3 point) {
 		return a.getValue(point).add(b.getValue(point)); // linear
 	}
+	
+	@Override
+	public void addValues(double[] points, Vector3 origin, int from, int to, double[] out) {
+		a.addValues(points, origin, from, to, out); // linear
+		b.addValues(points, origin, from, to, out);
+	}
 
 	@Override
 	public Vector3 curl(Vector3 point) {
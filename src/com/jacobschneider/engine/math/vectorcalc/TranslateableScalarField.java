@@ -55,7 +55,7 @@ public class TranslateableScalarField implements ScalarField {
 
 	@Override
 	public Vector3 gradientTraversal(Vector3 point, double desiredPotential) {
-		return field.gradientTraversal(point.subtract(pos), desiredPotential);
+		return field.gradientTraversal(point.subtract(pos), desiredPotential).add(pos);
 	}
 
 }
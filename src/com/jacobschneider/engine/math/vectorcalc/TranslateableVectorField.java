@@ -26,6 +26,11 @@ public class TranslateableVectorField implements VectorField {
 	public Vector3 getValue(Vector3 point) {
 		return field.getValue(point.subtract(pos));
 	}
+	
+	@Override
+	public void addValues(double[] points, Vector3 origin, int from, int to, double[] out) {
+		field.addValues(points, origin.add(pos), from, to, out);
+	}
 
 	@Override
 	public Vector3 curl(Vector3 point) {
@@ -0,0 +1,251 @@
+package com.jacobschneider.engine.physics;
+
+import java.util.Arrays;
+
+/**
+ * An octree over point sources of inverse square forces, used to find the force of every source on a point in
+ * O(log n) instead of O(n).
+ * Each node stores the total strength of the sources inside it and their center of strength. A node that is far
+ * enough away, compared to its size, is treated as a single source at that center (Barnes-Hut).
+ * The opening angle is the largest ratio of node width to distance at which a node is still treated as one source.
+ * An angle of 0 opens every node and gives the exact sum. Only sources with positive strength may be added.
+ * The tree is rebuilt from scratch every step, its arrays are kept between builds.
+ *
+ * @author Jacob
+ *
+ */
+final class BarnesHutTree {
+	private static final int LEAF_SIZE = 8; // maximum number of sources in a leaf, unless they are too close to split
+	private static final int MAX_DEPTH = 32;
+
+	private final double openingAngle;
+
+	// sources
+	private int numSources = 0;
+	private double[] points = new double[48]; // packed positions
+	private double[] strengths = new double[16];
+	private int[] owners = new int[16]; // index of the point that feels no force from each source, or -1
+	private int[] order = new int[16]; // source indices grouped by node
+	private int[] scratch = new int[16];
+
+	// nodes, children of a node are stored next to each other
+	private int numNodes = 0;
+	private double[] centers = new double[48]; // packed cube centers
+	private double[] halfWidths = new double[16];
+	private double[] totals = new double[16]; // total strength
+	private double[] coms = new double[48]; // packed center of strength
+	private int[] firstChild = new int[16];
+	private int[] numChildren = new int[16];
+	private int[] firstSource = new int[16]; // range of order held by the node
+	private int[] endSource = new int[16];
+
+	/**
+	 * @param openingAngle the largest ratio of node width to distance at which a node is treated as a single source
+	 */
+	BarnesHutTree(double openingAngle) {
+		if (openingAngle < 0) {
+			throw new IllegalArgumentException("The opening angle cannot be negative");
+		}
+		this.openingAngle = openingAngle;
+	}
+
+	/**
+	 * Removes every source.
+	 */
+	void clear() {
+		numSources = 0;
+		numNodes = 0;
+	}
+
+	/**
+	 * Adds a source. The force it exerts on a point p is strength * (x - p) / |x - p|^3.
+	 * @param owner index of the point that should feel no force from this source, or -1
+	 */
+	void add(double x, double y, double z, double strength, int owner) {
+		if (strength <= 0) {
+			throw new IllegalArgumentException("Only sources with positive strength can be grouped");
+		}
+		if (numSources == strengths.length) {
+			int length = 2 * numSources;
+			points = Arrays.copyOf(points, 3 * length);
+			strengths = Arrays.copyOf(strengths, length);
+			owners = Arrays.copyOf(owners, length);
+			order = new int[length];
+			scratch = new int[length];
+		}
+		points[3*numSources] = x;
+		points[3*numSources+1] = y;
+		points[3*numSources+2] = z;
+		strengths[numSources] = strength;
+		owners[numSources] = owner;
+		numSources++;
+	}
+
+	/**
+	 * @return the number of sources in the tree
+	 */
+	int size() {
+		return numSources;
+	}
+
+	/**
+	 * Builds the tree over every source added since the last call to {@link #clear()}.
+	 */
+	void build() {
+		numNodes = 0;
+		if (numSources == 0) {
+			return;
+		}
+		double[] min = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY};
+		double[] max = {Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+		for (int k = 0; k < numSources; k++) {
+			order[k] = k;
+			for (int d = 0; d < 3; d++) {
+				min[d] = Math.min(min[d], points[3*k+d]);
+				max[d] = Math.max(max[d], points[3*k+d]);
+			}
+		}
+		double half = 0.5 * Math.max(max[0] - min[0], Math.max(max[1] - min[1], max[2] - min[2]));
+		int root = newNode(0.5 * (min[0] + max[0]), 0.5 * (min[1] + max[1]), 0.5 * (min[2] + max[2]), half, 0, numSources);
+		build(root, 0);
+	}
+
+	/**
+	 * Splits a node into octants until every leaf is small enough, and sums the strength of every node.
+	 */
+	private void build(int node, int depth) {
+		int start = firstSource[node];
+		int end = endSource[node];
+		if (end - start > LEAF_SIZE && depth < MAX_DEPTH) {
+			double cx = centers[3*node], cy = centers[3*node+1], cz = centers[3*node+2];
+			// counting sort of the node's sources by octant
+			int[] counts = new int[8];
+			for (int i = start; i < end; i++) {
+				counts[octant(order[i], cx, cy, cz)]++;
+			}
+			int[] offsets = new int[8];
+			for (int o = 0, sum = start; o < 8; o++) {
+				offsets[o] = sum;
+				sum += counts[o];
+			}
+			for (int i = start; i < end; i++) {
+				int k = order[i];
+				scratch[offsets[octant(k, cx, cy, cz)]++] = k;
+			}
+			System.arraycopy(scratch, start, order, start, end - start);
+
+			double quarter = 0.5 * halfWidths[node];
+			int first = numNodes;
+			int childStart = start;
+			for (int o = 0; o < 8; o++) {
+				if (counts[o] == 0) {
+					continue;
+				}
+				newNode(cx + ((o & 1) == 0 ? -quarter : quarter), cy + ((o & 2) == 0 ? -quarter : quarter),
+						cz + ((o & 4) == 0 ? -quarter : quarter), quarter, childStart, childStart + counts[o]);
+				childStart += counts[o];
+			}
+			firstChild[node] = first;
+			numChildren[node] = numNodes - first;
+			for (int c = first; c < first + numChildren[node]; c++) {
+				build(c, depth + 1);
+			}
+		}
+		double total = 0, mx = 0, my = 0, mz = 0;
+		for (int i = start; i < end; i++) {
+			int k = order[i];
+			total += strengths[k];
+			mx += strengths[k] * points[3*k];
+			my += strengths[k] * points[3*k+1];
+			mz += strengths[k] * points[3*k+2];
+		}
+		totals[node] = total;
+		coms[3*node] = mx / total;
+		coms[3*node+1] = my / total;
+		coms[3*node+2] = mz / total;
+	}
+
+	private int octant(int k, double cx, double cy, double cz) {
+		return (points[3*k] < cx ? 0 : 1) | (points[3*k+1] < cy ? 0 : 2) | (points[3*k+2] < cz ? 0 : 4);
+	}
+
+	private int newNode(double cx, double cy, double cz, double half, int start, int end) {
+		if (numNodes == totals.length) {
+			int length = 2 * numNodes;
+			centers = Arrays.copyOf(centers, 3 * length);
+			halfWidths = Arrays.copyOf(halfWidths, length);
+			totals = Arrays.copyOf(totals, length);
+			coms = Arrays.copyOf(coms, 3 * length);
+			firstChild = Arrays.copyOf(firstChild, length);
+			numChildren = Arrays.copyOf(numChildren, length);
+			firstSource = Arrays.copyOf(firstSource, length);
+			endSource = Arrays.copyOf(endSource, length);
+		}
+		int node = numNodes++;
+		centers[3*node] = cx;
+		centers[3*node+1] = cy;
+		centers[3*node+2] = cz;
+		halfWidths[node] = half;
+		firstChild[node] = -1;
+		numChildren[node] = 0;
+		firstSource[node] = start;
+		endSource[node] = end;
+		return node;
+	}
+
+	/**
+	 * Adds the force of every source to a range of packed points. Safe to call from several threads at once
+	 * once the tree is built.
+	 * @param points packed positions, point i is at index 3i
+	 * @param from index of the first point
+	 * @param to index one past the last point
+	 * @param out packed forces that the force on each point is added to
+	 */
+	void addForces(double[] points, int from, int to, double[] out) {
+		if (numNodes == 0) {
+			return;
+		}
+		int[] stack = new int[8 * MAX_DEPTH + 1];
+		for (int i = from; i < to; i++) {
+			double px = points[3*i], py = points[3*i+1], pz = points[3*i+2];
+			double fx = 0, fy = 0, fz = 0;
+			int top = 0;
+			stack[top++] = 0;
+			while (top > 0) {
+				int node = stack[--top];
+				double half = halfWidths[node];
+				double dx = coms[3*node] - px, dy = coms[3*node+1] - py, dz = coms[3*node+2] - pz;
+				double d2 = dx * dx + dy * dy + dz * dz;
+				boolean outside = Math.abs(px - centers[3*node]) > half || Math.abs(py - centers[3*node+1]) > half
+						|| Math.abs(pz - centers[3*node+2]) > half; // a node holding the point itself is never grouped
+				if (outside && 4 * half * half < openingAngle * openingAngle * d2) {
+					double s = totals[node] / (d2 * Math.sqrt(d2));
+					fx += s * dx;
+					fy += s * dy;
+					fz += s * dz;
+				} else if (firstChild[node] == -1) {
+					for (int j = firstSource[node]; j < endSource[node]; j++) {
+						int k = order[j];
+						if (owners[k] == i) {
+							continue;
+						}
+						double sx = this.points[3*k] - px, sy = this.points[3*k+1] - py, sz = this.points[3*k+2] - pz;
+						double r2 = sx * sx + sy * sy + sz * sz;
+						double s = strengths[k] / (r2 * Math.sqrt(r2));
+						fx += s * sx;
+						fy += s * sy;
+						fz += s * sz;
+					}
+				} else {
+					for (int c = firstChild[node]; c < firstChild[node] + numChildren[node]; c++) {
+						stack[top++] = c;
+					}
+				}
+			}
+			out[3*i] += fx;
+			out[3*i+1] += fy;
+			out[3*i+2] += fz;
+		}
+	}
+
+}
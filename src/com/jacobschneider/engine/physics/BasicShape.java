@@ -26,6 +26,8 @@ import com.jacobschneider.engine.math.Vector3;
 public class BasicShape implements Drawable, Shape {
 	private final Primitive[] primitives; // unique set of primitives that make up the shape in body space
 	private final Segment[] segments; // unique set of segments that make up the shape in body space
+	private MeshBuffer mesh = null; // built the first time the shape is drawn, only touched by the GL thread
+	private boolean meshBuilt = false;
 	
 	/**
 	 * Creates a shape from a List of primitive objects. All coordinates are in body frame. 
@@ -68,7 +70,18 @@ public class BasicShape implements Drawable, Shape {
 		this.primitives = Arrays.copyOf(shape.primitives, shape.primitives.length);
 		this.segments = Arrays.copyOf(shape.segments, shape.segments.length);
 	}
-	
+
+	/**
+	 * Creates a shape from primitives and segments that have already been de-duplicated.
+	 * Used by {@link ShapeCooker} so that a cooked shape does not repeat the work done by {@link #BasicShape(Set)}.
+	 * @param primitives unique primitives in body space
+	 * @param segments unique segments in body space
+	 */
+	BasicShape(Primitive[] primitives, Segment[] segments) {
+		this.primitives = primitives;
+		this.segments = segments;
+	}
+
 	@Override
 	public Primitive[] getPrimitives() {
 		return Arrays.copyOf(primitives, primitives.length);
@@ -81,6 +94,7 @@ public class BasicShape implements Drawable, Shape {
 
 	/**
 	 * Detects all CollisionInterfaces (points and normals) of collision between this shape and another shape.
+	 * The algorithm is chosen by {@link CollisionAlgorithms} based on the classes of both shapes.
 	 * @param other The other shape.
 	 * @param thisBody The {@link PhysicsBody} attached to this shape's body
 	 * @param otherBody The {@link PhysicsBody} attached to the other shape's body
@@ -88,12 +102,24 @@ public class BasicShape implements Drawable, Shape {
 	 */
 	@Override
 	public List<CollisionInterface> collisionDetect(Shape other, PhysicsBody thisBody, PhysicsBody otherBody) {
+		return CollisionAlgorithms.collisionDetect(this, other, thisBody, otherBody);
+	}
+	
+	/**
+	 * The generic collision algorithm. Intersects the segments of each shape with the primitives of the other shape.
+	 * @param a The first shape.
+	 * @param b The second shape.
+	 * @param aBody The {@link PhysicsBody} attached to the first shape's body
+	 * @param bBody The {@link PhysicsBody} attached to the second shape's body
+	 * @return A list of collisions with normals pointing away from the first shape.
+	 */
+	static List<CollisionInterface> segmentCollisionDetect(Shape a, Shape b, PhysicsBody aBody, PhysicsBody bBody) {
 		List<CollisionInterface> contacts = new ArrayList<CollisionInterface>();
-		contacts.addAll(collisionDetectInternal(other, this, thisBody, otherBody));
+		contacts.addAll(collisionDetectInternal(b, a, aBody, bBody));
 		// this next line is a tough one
 		// without it => a small fixed object can pass through things
 		// with it => performance suffers
-		contacts.addAll(CollisionInterface.flipNormals(BasicShape.collisionDetectInternal(this, other, otherBody, thisBody))); 
+		contacts.addAll(CollisionInterface.flipNormals(BasicShape.collisionDetectInternal(a, b, bBody, aBody))); 
 		return contacts;
 	}
 	
@@ -121,6 +147,20 @@ public class BasicShape implements Drawable, Shape {
 		return inters;
 	}
 	
+	/**
+	 * @return the vertex buffer of this shape, or null if it has primitives that can only draw themselves
+	 */
+	MeshBuffer getMeshBuffer() {
+		if (!meshBuilt) {
+			mesh = MeshBuffer.bake(primitives);
+			meshBuilt = true;
+		}
+		return mesh;
+	}
+	
+	/**
+	 * Draws every primitive in immediate mode. A {@link Body} draws the {@link MeshBuffer} of its shape instead when it can.
+	 */
 	@Override
 	public void draw(GLAutoDrawable drawable) {
 	    for (Primitive p : primitives) {
@@ -1,9 +1,15 @@
 package com.jacobschneider.engine.physics;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import javax.media.opengl.GL;
 import javax.media.opengl.GL2;
@@ -11,39 +17,68 @@ import javax.media.opengl.GLAutoDrawable;
 
 import com.jacobschneider.engine.Simulation;
 import com.jacobschneider.engine.framework.Drawable;
+import com.jacobschneider.engine.framework.Pair;
+import com.jacobschneider.engine.framework.PhysicsBody.Integrator;
 import com.jacobschneider.engine.framework.ScalarField;
 import com.jacobschneider.engine.framework.Universe;
 import com.jacobschneider.engine.framework.VectorField;
 import com.jacobschneider.engine.math.Vector3;
+import com.jacobschneider.engine.math.vectorcalc.CentralPotential;
+import com.jacobschneider.engine.math.vectorcalc.FieldCompiler;
+import com.jacobschneider.engine.math.vectorcalc.GridVectorField;
+import com.jacobschneider.engine.math.vectorcalc.Potentials;
 import com.jacobschneider.engine.math.vectorcalc.TranslateableScalarField;
 import com.jacobschneider.engine.math.vectorcalc.TranslateableVectorField;
-import com.jacobschneider.engine.physics.Collision.Contact;
 
 /**
  * A basic implementation of {@link Universe}.
  * This implementation is used by {@link Simulation}.
  * Has good performance when the number of non-fixed {@link Body} objects is less than around 20.
+ * Fixed bodies are placed in a {@link StaticBodyTree} when the universe is created, so moving bodies only
+ * test the fixed bodies near them and pairs of fixed bodies are never tested at all.
+ * Bodies can be added and removed from any thread with {@link #addBody(Body)} and {@link #removeBody(Body)}.
+ * The changes are queued and applied at the start of the next call to {@link #update(float)}, in the order they were made,
+ * as are changes to gravity, the integrator and the potentials attached to bodies.
+ * Bodies linked by {@link Joint} objects, added with {@link #addJoint(Joint)}, form islands. Every body of an island is
+ * moved before the contacts of the whole island and its joints are solved together.
  * 
  * @author Jacob
  *
  */
 public final class BasicUniverse implements Universe,Drawable {
-	private static final float INSTANT_FORCE_DURATION = 0.00001f; // the duration of an 'instantaneous' force.
 	private VectorField forceField; // global vector field
 	private double gravAccel = 0; // global gravity
+	private Integrator integrator = null; // given to every body when not null
 	private Map<Body, TranslateableVectorField> bodyForces = new HashMap<>();
+	private Map<Body, Double> inverseSquareStrengths = new HashMap<>(); // strength of each body potential that is an inverse square law
 	
-	private final List<Body> bodies = new ArrayList<Body>();
+	// every body in the universe, a removed body leaves an empty slot that is reused by the next body added
+	// replaced, never shrunk, when it needs to grow so draw can read it while bodies are being added
+	private volatile Body[] bodies = new Body[0];
+	private int numSlots = 0; // number of slots that have ever been used
+	private final Deque<Integer> freeSlots = new ArrayDeque<Integer>();
+	private final Map<Body, Integer> slotOf = new IdentityHashMap<Body, Integer>();
+	private final List<Body> dynamicBodies = new ArrayList<Body>(); // every body that is not fixed
+	private final Map<Body, Integer> dynamicIndex = new IdentityHashMap<Body, Integer>(); // index of each body in dynamicBodies
+	private StaticBodyTree staticBodies; // every body that is fixed
+	private final ContactArena contacts = new ContactArena(); // reused by every body on every step
+	private final ForceAccumulator fieldForces = new ForceAccumulator(); // evaluates every field for every moving body
+	private final InstancedRenderer renderer = new InstancedRenderer(); // only touched by the GL thread
+	private final Queue<Change> pendingChanges = new ConcurrentLinkedQueue<Change>(); // applied at the start of each step
+	private final List<Body> nearbyStatics = new ArrayList<Body>(); // reused by every body on every step
+	private final StaticBodyTree.QueryStack staticQuery = new StaticBodyTree.QueryStack(); // reused by every body on every step
+	
+	private final List<Joint> joints = new ArrayList<Joint>();
+	private final Map<Body, List<Joint>> jointsOf = new IdentityHashMap<Body, List<Joint>>(); // the joints attached to each body
+	private Island[] islandAt = null; // the island of each moving body by its index in dynamicBodies, null when there are no joints
+	private boolean islandsChanged = false; // set when a body or joint is added or removed
 	
 	/**
 	 * Creates a universe object that contains a list of bodies
 	 * @param bodies variable number comma delimited list of {@link Body} objects
 	 */
 	public BasicUniverse(Body... bodies) {
-		for (Body b : bodies) {
-			this.bodies.add(b);
-		}
-		initialIntersectionCheck();
+		this(Arrays.asList(bodies));
 	}
 	
 	/**
@@ -51,8 +86,21 @@ public final class BasicUniverse implements Universe,Drawable {
 	 * @param bodies The list of bodies to be added to the universe.
 	 */
 	public BasicUniverse(List<Body> bodies) {
-		this.bodies.addAll(bodies);
-		initialIntersectionCheck();
+		this(bodies, true);
+	}
+	
+	/**
+	 * Creates a universe object that contains a list of bodies.
+	 * @param bodies The list of bodies to be added to the universe.
+	 * @param checkIntersections If true an {@link IllegalStateException} listing every intersecting pair is thrown
+	 * when any bodies are intersecting. Skipping the check speeds up the creation of large universes
+	 * whose bodies are known to be apart, {@link #findIntersections()} can still be called later.
+	 */
+	public BasicUniverse(List<Body> bodies, boolean checkIntersections) {
+		placeBodies(bodies);
+		if (checkIntersections) {
+			initialIntersectionCheck();
+		}
 	}
 	
 	/**
@@ -63,48 +111,422 @@ public final class BasicUniverse implements Universe,Drawable {
 	public BasicUniverse(BasicUniverse uni) {
 		this.gravAccel = uni.gravAccel;
 		this.forceField = uni.forceField;
-		this.bodies.addAll(uni.bodies);
+		List<Body> bodies = new ArrayList<Body>();
+		for (Body b : uni.bodies) {
+			if (b != null) {
+				bodies.add(b);
+			}
+		}
+		placeBodies(bodies);
+		for (Joint j : uni.joints) {
+			attachJoint(j);
+		}
+		islandsChanged = true;
+	}
+	
+	/**
+	 * Gives each body a slot and splits the bodies into the moving bodies and the tree of fixed bodies.
+	 */
+	private void placeBodies(List<Body> bodies) {
+		List<Body> fixed = new ArrayList<Body>();
+		for (Body b : bodies) {
+			if (slotOf.containsKey(b)) {
+				continue;
+			}
+			takeSlot(b);
+			if (b.isFixed()) {
+				fixed.add(b);
+			} else {
+				addDynamic(b);
+			}
+		}
+		staticBodies = new StaticBodyTree(fixed);
+	}
+	
+	/**
+	 * Adds a body to this universe. The body is added at the start of the next step, it is given this universe's
+	 * gravity and it is not checked for intersections with the bodies already in the universe.
+	 * Adding a body that is already in the universe has no effect. This method can be called from any thread.
+	 * @param b the body to add
+	 */
+	public void addBody(final Body b) {
+		if (b == null) {
+			throw new IllegalArgumentException("Cannot add a null body");
+		}
+		pendingChanges.add(new Change() {
+			@Override
+			void apply() {
+				applyAddBody(b);
+			}
+		});
+	}
+	
+	/**
+	 * Removes a body from this universe. The body is removed at the start of the next step and loses
+	 * this universe's gravity, any potential attached to it with {@link #addBodyPotential(Body, ScalarField)} and any joints attached to it.
+	 * Removing a body that is not in the universe has no effect. This method can be called from any thread.
+	 * @param b the body to remove
+	 */
+	public void removeBody(final Body b) {
+		if (b == null) {
+			throw new IllegalArgumentException("Cannot remove a null body");
+		}
+		pendingChanges.add(new Change() {
+			@Override
+			void apply() {
+				applyRemoveBody(b);
+			}
+		});
+	}
+	
+	/**
+	 * Adds a joint to this universe. The joint is added at the start of the next step, if either of its bodies is not
+	 * in the universe at that point the joint is ignored. The bodies it links stop colliding with each other.
+	 * Adding a joint that is already in the universe has no effect. This method can be called from any thread.
+	 * @param joint the joint to add, made with {@link Joints}
+	 */
+	public void addJoint(final Joint joint) {
+		if (joint == null) {
+			throw new IllegalArgumentException("Cannot add a null joint");
+		}
+		pendingChanges.add(new Change() {
+			@Override
+			void apply() {
+				if (!joints.contains(joint) && slotOf.containsKey(joint.getBodyA()) && slotOf.containsKey(joint.getBodyB())) {
+					attachJoint(joint);
+					islandsChanged = true;
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Removes a joint from this universe. The joint is removed at the start of the next step.
+	 * Removing a joint that is not in the universe has no effect. This method can be called from any thread.
+	 * @param joint the joint to remove
+	 */
+	public void removeJoint(final Joint joint) {
+		if (joint == null) {
+			throw new IllegalArgumentException("Cannot remove a null joint");
+		}
+		pendingChanges.add(new Change() {
+			@Override
+			void apply() {
+				detachJoint(joint);
+				islandsChanged = true;
+			}
+		});
+	}
+	
+	/**
+	 * Applies every queued change in the order they were made.
+	 */
+	private void applyPendingChanges() {
+		Change change;
+		while ((change = pendingChanges.poll()) != null) {
+			change.apply();
+		}
+	}
+	
+	private void applyAddBody(Body b) {
+		if (slotOf.containsKey(b)) {
+			return;
+		}
+		islandsChanged = true;
+		takeSlot(b);
+		if (b.isFixed()) {
+			staticBodies.insert(b);
+		} else {
+			addDynamic(b);
+		}
+		b.addAccel(new Vector3(0, 0, -gravAccel));
+		if (integrator != null) {
+			b.setIntegrator(integrator);
+		}
+	}
+	
+	private void applyRemoveBody(Body b) {
+		if (!slotOf.containsKey(b)) {
+			return;
+		}
+		islandsChanged = true;
+		int slot = slotOf.remove(b);
+		bodies[slot] = null;
+		freeSlots.push(slot);
+		if (b.isFixed()) {
+			staticBodies.remove(b);
+		} else {
+			removeDynamic(b);
+		}
+		bodyForces.remove(b);
+		inverseSquareStrengths.remove(b);
+		List<Joint> attached = jointsOf.get(b);
+		while (attached != null && !attached.isEmpty()) {
+			detachJoint(attached.get(attached.size() - 1));
+		}
+		b.addAccel(new Vector3(0, 0, gravAccel));
+	}
+	
+	private void takeSlot(Body b) {
+		int slot;
+		if (freeSlots.isEmpty()) {
+			if (numSlots == bodies.length) {
+				bodies = Arrays.copyOf(bodies, Math.max(16, numSlots * 2));
+			}
+			slot = numSlots++;
+		} else {
+			slot = freeSlots.pop();
+		}
+		bodies[slot] = b;
+		slotOf.put(b, slot);
+	}
+	
+	private void addDynamic(Body b) {
+		dynamicIndex.put(b, dynamicBodies.size());
+		dynamicBodies.add(b);
+	}
+	
+	/**
+	 * Removes a moving body by moving the last moving body into its place.
+	 */
+	private void removeDynamic(Body b) {
+		int index = dynamicIndex.remove(b);
+		Body last = dynamicBodies.remove(dynamicBodies.size() - 1);
+		if (last != b) {
+			dynamicBodies.set(index, last);
+			dynamicIndex.put(last, index);
+		}
+	}
+	
+	private void attachJoint(Joint j) {
+		joints.add(j);
+		jointsFor(j.getBodyA()).add(j);
+		jointsFor(j.getBodyB()).add(j);
+	}
+	
+	private void detachJoint(Joint j) {
+		if (!joints.remove(j)) {
+			return;
+		}
+		jointsOf.get(j.getBodyA()).remove(j);
+		jointsOf.get(j.getBodyB()).remove(j);
+	}
+	
+	private List<Joint> jointsFor(Body b) {
+		List<Joint> attached = jointsOf.get(b);
+		if (attached == null) {
+			attached = new ArrayList<Joint>(2);
+			jointsOf.put(b, attached);
+		}
+		return attached;
+	}
+	
+	/**
+	 * @return true if a joint links the two bodies directly
+	 */
+	private boolean joined(Body a, Body b) {
+		List<Joint> attached = jointsOf.get(a);
+		if (attached == null) {
+			return false;
+		}
+		for (int i = 0; i < attached.size(); i++) {
+			Joint j = attached.get(i);
+			if (j.getBodyA() == b || j.getBodyB() == b) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Groups the moving bodies linked by joints into islands with a union find over their indices in dynamicBodies.
+	 * A fixed body does not join the islands of the bodies attached to it, since nothing it touches can move it.
+	 */
+	private void buildIslands() {
+		islandsChanged = false;
+		islandAt = null;
+		if (joints.isEmpty()) {
+			return;
+		}
+		int n = dynamicBodies.size();
+		int[] parent = new int[n];
+		for (int i = 0; i < n; i++) {
+			parent[i] = i;
+		}
+		for (Joint j : joints) {
+			Integer a = dynamicIndex.get(j.getBodyA());
+			Integer b = dynamicIndex.get(j.getBodyB());
+			if (a != null && b != null) {
+				parent[find(parent, a)] = find(parent, b);
+			}
+		}
+		Island[] islandOfRoot = new Island[n];
+		for (Joint j : joints) {
+			Integer member = dynamicIndex.get(j.getBodyA());
+			if (member == null) {
+				member = dynamicIndex.get(j.getBodyB());
+			}
+			if (member == null) {
+				continue;
+			}
+			int root = find(parent, member);
+			if (islandOfRoot[root] == null) {
+				islandOfRoot[root] = new Island();
+			}
+			islandOfRoot[root].joints.add(j);
+		}
+		islandAt = new Island[n];
+		for (int i = 0; i < n; i++) {
+			Island island = islandOfRoot[find(parent, i)];
+			if (island != null) {
+				island.members.add(i);
+				islandAt[i] = island;
+			}
+		}
+	}
+	
+	private static int find(int[] parent, int i) {
+		while (parent[i] != i) {
+			parent[i] = parent[parent[i]]; // path halving
+			i = parent[i];
+		}
+		return i;
+	}
+	
+	/**
+	 * Moving bodies linked by joints, which are stepped and solved together.
+	 */
+	private static class Island {
+		final List<Integer> members = new ArrayList<Integer>(); // indices in dynamicBodies, in increasing order
+		final List<Joint> joints = new ArrayList<Joint>();
+	}
+	
+	/**
+	 * A queued call to a method that changes the bodies, joints or forces of this universe.
+	 * Only applied by the thread that steps the universe.
+	 */
+	private abstract class Change {
+		abstract void apply();
 	}
 	
 	/**
 	 * Sets the acceleration of gravity for this universe.
 	 * Gravity always points in the negative Z direction.
+	 * The change is applied at the start of the next step. This method can be called from any thread.
 	 * 
 	 * @param gravAccel Gravitational acceleration
 	 */
-	public void setGravity(double gravAccel) {
-		this.gravAccel = gravAccel;
-		for (Body b : bodies) {
-			b.addAccel(new Vector3(0, 0, -gravAccel));
+	public void setGravity(final double gravAccel) {
+		pendingChanges.add(new Change() {
+			@Override
+			void apply() {
+				BasicUniverse.this.gravAccel = gravAccel;
+				for (Body b : bodies) {
+					if (b != null) {
+						b.addAccel(new Vector3(0, 0, -gravAccel));
+					}
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Changes how every body in this universe advances its state each frame, including bodies added later.
+	 * Until this is called each body keeps the integrator it was built with.
+	 * The change is applied at the start of the next step. This method can be called from any thread.
+	 * 
+	 * @param integrator the integrator to use
+	 */
+	public void setIntegrator(final Integrator integrator) {
+		if (integrator == null) {
+			throw new IllegalArgumentException("Integrator cannot be null");
 		}
+		pendingChanges.add(new Change() {
+			@Override
+			void apply() {
+				BasicUniverse.this.integrator = integrator;
+				for (Body b : bodies) {
+					if (b != null) {
+						b.setIntegrator(integrator);
+					}
+				}
+			}
+		});
 	}
 	
 	/**
 	 * Adds a scaler potential to this universe. All objects in this universe
 	 * will undergo a force on each frame equal to the negative gradient
 	 * of this field. The reason why you are not able to add a {@link VectorField} directly to this
-	 * universe is to ensure that all forces are conservative.
+	 * universe is to ensure that all forces are conservative. The field is flattened with {@link FieldCompiler} first.
 	 * @param s the scaler field
 	 */
 	@Override
 	public void addScalerPotential(ScalarField s) {
-		this.forceField = s.toVectorField();
+		this.forceField = FieldCompiler.compile(s).toVectorField();
 	}
 	
 	/**
-	 * Adds a scaler potential to a {@link Body} in the universe. If the body does not exist
-	 * in the universe throws an {@link IllegalArgumentException}. The origin of the scaler field is updated
+	 * Adds a scaler potential to this universe like {@link #addScalerPotential(ScalarField)}, but samples its force
+	 * field on a grid over a box once, up front. Bodies inside the box feel a force interpolated from the grid, which
+	 * costs the same no matter how complicated the potential is. Bodies outside the box feel the exact force.
+	 * See {@link GridVectorField} for sparse and memory mapped grids.
+	 * @param s the scaler field
+	 * @param min the lowest corner of the box
+	 * @param max the highest corner of the box
+	 * @param spacing the largest distance between neighbouring samples
+	 */
+	public void addScalerPotential(ScalarField s, Vector3 min, Vector3 max, double spacing) {
+		this.forceField = GridVectorField.bake(FieldCompiler.compile(s).toVectorField(), min, max, spacing);
+	}
+	
+	/**
+	 * Adds a scaler potential to a {@link Body} in the universe. The origin of the scaler field is updated
 	 * to align with the body's position before each frame. If a body already contains a potential the original one
-	 * will be overwritten.
+	 * will be overwritten. The potential is attached at the start of the next step, after any body queued by
+	 * {@link #addBody(Body)} before this call has been added, so a body can be added and given a potential straight away.
+	 * If the body is not in the universe at that point the potential is ignored. This method can be called from any thread.
 	 * @param b the body to attach the scaler potential to
 	 * @param s the scaler potential
 	 */
 	@Override
-	public void addBodyPotential(Body b, ScalarField s) {
-		if (!bodies.contains(b)) {
-			throw new IllegalArgumentException("The universe does not contain this body");
+	public void addBodyPotential(final Body b, ScalarField s) {
+		if (b == null || s == null) {
+			throw new IllegalArgumentException("Body and potential must not be null");
 		}
-		bodyForces.put(b, new TranslateableScalarField(s).toVectorField());
+		final TranslateableVectorField force = new TranslateableScalarField(FieldCompiler.compile(s)).toVectorField(); // compiled by the caller
+		final Double strength = s instanceof CentralPotential && ((CentralPotential) s).isInverseSquare() ? ((CentralPotential) s).getStrength() : null;
+		pendingChanges.add(new Change() {
+			@Override
+			void apply() {
+				if (!slotOf.containsKey(b)) {
+					return;
+				}
+				bodyForces.put(b, force);
+				if (strength != null) {
+					inverseSquareStrengths.put(b, strength);
+				} else {
+					inverseSquareStrengths.remove(b);
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Speeds up universes where many bodies have an inverse square potential, such as one made with
+	 * {@link Potentials#inverseSquare(double)}, attached with {@link #addBodyPotential(Body, ScalarField)}.
+	 * The bodies creating these potentials are grouped into an octree that is rebuilt every step, and a group of
+	 * bodies that is far enough away is treated as one body at its center (Barnes-Hut). This takes each step from
+	 * O(n^2) to O(n log n). Every other potential is still evaluated directly.
+	 * 
+	 * @param openingAngle the largest ratio of group width to distance at which a group is treated as one body.
+	 * Larger angles are faster and less accurate, 0.5 is a common choice. 0, the default, evaluates every potential directly.
+	 */
+	public void setOpeningAngle(double openingAngle) {
+		if (openingAngle < 0) {
+			throw new IllegalArgumentException("The opening angle cannot be negative");
+		}
+		fieldForces.setOpeningAngle(openingAngle);
 	}
 	
 	/**
@@ -116,47 +538,108 @@ public final class BasicUniverse implements Universe,Drawable {
 	 */
 	@Override
 	public void update(float deltaTime) {
-		for (Body b1 : bodies) {
-			if (b1.isFixed()) {
-				continue; // does not move and therefore cannot cause a collision
-			} else {
-				TranslateableVectorField myField = null;
-				if (bodyForces.containsKey(b1)) { // update this bodies body force
-					myField = bodyForces.get(b1);
-					myField.updatePosition(b1.getX());
-				}
-				for (VectorField f : bodyForces.values()) { // enact all body forces
-					if (f != myField) { // dont exert potential on myself
-						b1.thrustInputs(f.getValue(b1.getX()), Vector3.zero, INSTANT_FORCE_DURATION);
-					}
-				}
-				if (forceField != null) { // enact global force
-					b1.thrustInputs(forceField.getValue(b1.getX()), Vector3.zero, INSTANT_FORCE_DURATION);
+		applyPendingChanges();
+		if (islandsChanged) {
+			buildIslands();
+		}
+		double[] forces = accumulateFieldForces();
+		for (int i = 0; i < dynamicBodies.size(); i++) { // fixed bodies do not move and therefore cannot cause a collision
+			Island island = islandAt == null ? null : islandAt[i];
+			if (island != null) {
+				if (island.members.get(0) == i) { // the whole island is stepped when its first body is reached
+					updateIsland(island, forces, deltaTime);
 				}
-				
-				b1.update(deltaTime); // moves the object	
+				continue;
 			}
-
-			List<Contact> contacts = new ArrayList<Contact>(); // all contacts that occur with this body and all other bodies.
-			for (Body b2 : bodies) { // check for contacts with all other bodies except self
-				if (b1 == b2) {
-					continue;
-				}
-				List<Contact> contact = b1.collisionDetect(b2); // all contacts b/w two specific bodies
-				if (contact != null && contact.size() != 0) {	
-					contacts.addAll(contact);	
-				}		
-				
-			}			
-			if (contacts.isEmpty()) {
+			move(i, forces, deltaTime);
+			contacts.clear(); // all contacts that occur with this body and all other bodies.
+			findContacts(i, null);
+			if (contacts.size() == 0) {
 				continue;
 			}			
-			Collision collision = new Collision(contacts.toArray(new Contact[contacts.size()]));
+			Collision collision = new Collision(contacts.getContacts(), 0, contacts.size());
 			collision.collide();
 		}
 				
 	}
 	
+	/**
+	 * Moves every body in an island and then solves the contacts of all of them and their joints together.
+	 */
+	private void updateIsland(Island island, double[] forces, float deltaTime) {
+		for (int i = 0; i < island.members.size(); i++) {
+			move(island.members.get(i), forces, deltaTime);
+		}
+		contacts.clear();
+		for (int i = 0; i < island.members.size(); i++) {
+			findContacts(island.members.get(i), island);
+		}
+		Collision collision = new Collision(contacts.getContacts(), 0, contacts.size(), island.joints, deltaTime);
+		collision.collide();
+	}
+	
+	private void move(int i, double[] forces, float deltaTime) {
+		Body b = dynamicBodies.get(i);
+		if (forces != null) { // held for exactly this step
+			b.thrustInputs(new Vector3(forces[3*i], forces[3*i+1], forces[3*i+2]), Vector3.zero, deltaTime);
+		}
+		b.update(deltaTime); // moves the object
+	}
+	
+	/**
+	 * Adds every contact between a moving body and the other bodies to the arena.
+	 * Within an island, a pair of bodies is only tested once and bodies linked directly by a joint are not tested.
+	 * @param i the index of the moving body in dynamicBodies
+	 * @param island the island of the body, or null if it has no joints
+	 */
+	private void findContacts(int i, Island island) {
+		Body b1 = dynamicBodies.get(i);
+		for (int j = 0; j < dynamicBodies.size(); j++) { // check for contacts with all other moving bodies except self
+			if (i == j) {
+				continue;
+			}
+			Body b2 = dynamicBodies.get(j);
+			if (island != null && islandAt[j] == island && (j < i || joined(b1, b2))) {
+				continue;
+			}
+			b1.collisionDetect(b2, contacts); // all contacts b/w two specific bodies
+		}
+		nearbyStatics.clear();
+		staticBodies.query(b1.getEnclosingBox(), nearbyStatics, staticQuery);
+		for (Body b2 : nearbyStatics) { // check for contacts with the fixed bodies near this body
+			if (island == null || !joined(b1, b2)) {
+				b1.collisionDetect(b2, contacts);
+			}
+		}
+	}
+	
+	/**
+	 * Evaluates the global field and every body potential at the position of each moving body before any of them move.
+	 * @return the packed force on each moving body, in the same order as dynamicBodies, or null if there are no fields
+	 */
+	private double[] accumulateFieldForces() {
+		if (bodyForces.isEmpty() && forceField == null) {
+			return null;
+		}
+		fieldForces.clear();
+		for (Map.Entry<Body, TranslateableVectorField> e : bodyForces.entrySet()) {
+			e.getValue().updatePosition(e.getKey().getX()); // move the field with the body creating it
+			Integer owner = dynamicIndex.get(e.getKey());
+			Double strength = inverseSquareStrengths.get(e.getKey());
+			if (fieldForces.groupsSources() && strength != null && strength > 0) {
+				fieldForces.addSource(e.getKey().getX(), strength, owner == null ? -1 : owner);
+			} else if (owner == null) { // a fixed body
+				fieldForces.addField(e.getValue());
+			} else { // dont exert potential on myself
+				fieldForces.addField(e.getValue(), owner);
+			}
+		}
+		if (forceField != null) {
+			fieldForces.addField(forceField);
+		}
+		return fieldForces.accumulate(dynamicBodies);
+	}
+	
 	/**
 	 * Calls the the draw method on each body in this universe.
 	 * If you are using a {@link Simulation} object the simulation
@@ -169,33 +652,38 @@ public final class BasicUniverse implements Universe,Drawable {
 		GL2 gl = drawable.getGL().getGL2();			
 		gl.glClear(GL.GL_COLOR_BUFFER_BIT | GL.GL_DEPTH_BUFFER_BIT); // clear color and depth buffer
 		
-		for (int i = 0; i < bodies.size(); i++) {
-			bodies.get(i).draw(drawable);
+		Body[] bodies = this.bodies;
+		if (renderer.draw(drawable, Arrays.asList(bodies))) { // one draw call per distinct mesh
+			return;
+		}
+		boolean buffered = MeshBuffer.isSupported(gl);
+		if (buffered) {
+			MeshBuffer.begin(gl);
+		}
+		for (Body b : bodies) {
+			if (b != null) {
+				b.draw(drawable, buffered);
+			}
+		}
+		if (buffered) {
+			MeshBuffer.end(gl);
 		}
 	}
 	
 	private void initialIntersectionCheck() {
-		if (checkIntersection()) {
-			throw new IllegalStateException("Bodies cannot be intersecting when the simulation begins");
+		List<Pair<Body, Body>> intersections = findIntersections();
+		if (!intersections.isEmpty()) {
+			throw new IllegalStateException("Bodies cannot be intersecting when the simulation begins. "
+											+ IntersectionFinder.describe(intersections, Arrays.asList(bodies).subList(0, numSlots)));
 		}
 	}
 	
 	/**
-	 * Determines if any objects are currently overlapping
+	 * Finds every pair of bodies that are currently intersecting. Fixed bodies are allowed to overlap each other
+	 * so pairs of fixed bodies are never reported. Large universes are checked on several threads.
+	 * @return every intersecting pair, a body that is not fixed is always the first body of its pair
 	 */
-	private boolean checkIntersection() {
-		for (int i = 0; i < bodies.size(); i++) {
-			for (int j = 0; j < bodies.size(); j++) { // check for contacts with all other bodies except self
-				if (i == j) {
-					continue;
-				}
-				List<Contact> contact = bodies.get(i).collisionDetect(bodies.get(j)); // all contacts b/w two specific bodies
-				if (contact != null && contact.size() != 0) {	
-					return true;	
-				}		
-				
-			}
-		}
-		return false;		
+	public List<Pair<Body, Body>> findIntersections() {
+		return IntersectionFinder.find(dynamicBodies, staticBodies);
 	}
 }
@@ -10,6 +10,7 @@ import com.jacobschneider.engine.math.Matrix3;
 import com.jacobschneider.engine.math.Quaternion;
 import com.jacobschneider.engine.math.Vector3;
 import com.jacobschneider.engine.math.boundingvolumes.BoundCircle;
+import com.jacobschneider.engine.math.boundingvolumes.BoundOBB;
 import com.jacobschneider.engine.math.boundingvolumes.BoundSphere;
 import com.jacobschneider.engine.physics.Body.Builder;
 
@@ -25,7 +26,7 @@ public class Bodies {
 	 * @param physicsBody controls the physics
 	 * @param shape geometric shape
 	 * @param mat material of the body
-	 * @param bound bound volume of the body
+	 * @param bound bound volume of the body, or null to fit one to the shape
 	 * @return the resulting {@link Body} object.
 	 */
 	public static Body customBody(PhysicsBody physicsBody, Shape shape, Material mat, BoundVolume bound) {
@@ -68,8 +69,8 @@ public class Bodies {
 		double[] inertiaBody = new double[] {(1.0/12.0)*mass*(h*h + d*d),0,0,
 										    0,(1.0/12.0)*mass*(w*w + d*d),0,
 										    0,0,(1.0/12.0)*mass*(h*h + w*w)};
-		BoundVolume boundingVolume = new BoundSphere(centerPos, Math.sqrt(w*w+h*h+d*d));
-		BasicShape shape = Shapes.newCuboid(w/2, h/2, d/2);
+		BoundVolume boundingVolume = new BoundOBB(Vector3.zero, new Vector3(w/2, h/2, d/2));
+		BasicShape shape = Shapes.newBox(w/2, h/2, d/2);
 		Builder builder = new Builder(centerPos, mass, shape);
 		return builder.inertiaTensor(Matrix3.fromColArray(inertiaBody)).boundVolume(boundingVolume).initialVelocity(velocity).build();
 	}
@@ -93,7 +94,7 @@ public class Bodies {
 		double cosTheta = dirArr.dot(dir0) / (dirArr.mag() * dir0.mag());
 		Quaternion q0 = Quaternion.newQuaternion(Math.acos(cosTheta), rotDir);		
 		
-		BoundVolume boundVol = new BoundCircle(dirArr, centerPos, Math.sqrt(w*w + h*h) / 2);
+		BoundVolume boundVol = BoundCircle.withBodyNormal(Vector3.k, centerPos, Math.sqrt(w*w + h*h) / 2); // rotated to dirArr by q0
 		BasicShape shape = Shapes.newWall(w, h);
 		Builder builder = new Builder(centerPos, 1, shape);
 		Body b = builder.initialRotation(q0).boundVolume(boundVol).fixBody().build();
@@ -10,15 +10,18 @@ import javax.media.opengl.GL2;
 import javax.media.opengl.GLAutoDrawable;
 
 import com.jacobschneider.engine.framework.BoundVolume;
+import com.jacobschneider.engine.framework.CollisionAlgorithm;
 import com.jacobschneider.engine.framework.Drawable;
 import com.jacobschneider.engine.framework.Manifold;
+import com.jacobschneider.engine.framework.Pair;
 import com.jacobschneider.engine.framework.PhysicsBody;
 import com.jacobschneider.engine.framework.PhysicsBody.Axis;
+import com.jacobschneider.engine.framework.PhysicsBody.Integrator;
 import com.jacobschneider.engine.framework.Shape;
 import com.jacobschneider.engine.math.Matrix3;
 import com.jacobschneider.engine.math.Quaternion;
 import com.jacobschneider.engine.math.Vector3;
-import com.jacobschneider.engine.math.boundingvolumes.BoundNull;
+import com.jacobschneider.engine.math.boundingvolumes.BoundVolumes;
 import com.jacobschneider.engine.physics.Collision.Contact;
 
 /**
@@ -35,8 +38,10 @@ import com.jacobschneider.engine.physics.Collision.Contact;
 public class Body implements Drawable {
 	private final Material mat;
 	private final Shape shape;
+	private final int shapeType; // type id of the shape class in CollisionAlgorithms
 	private final BoundVolume boundingVolume;
 	private final PhysicsBody rigidBody;	
+	private final double[] modelMatrix = new double[16]; // reused by every draw, only touched by the GL thread
 	
 	/**
 	 * Builder pattern for the Body class
@@ -57,12 +62,13 @@ public class Body implements Drawable {
 		private Vector3 omegaBody = Vector3.zero;
 		private Matrix3 inertiaBody = Matrix3.IDENTITY;
 		private Material mat = Material.defaultMaterial;
-		private BoundVolume boundingVolume = new BoundNull();
+		private BoundVolume boundingVolume = null; // fitted to the shape when the body is built
 		private boolean fixedPos = false;
 		private Set<Axis> fixedAxes = EnumSet.noneOf(Axis.class);
 		private Vector3 rotateAround = null;
 		private double scalerInertia = 0;
 		public Manifold constraint = null;
+		private Integrator integrator = Integrator.EXPLICIT_EULER;
 		
 		public Builder(Vector3 position, double mass, Shape shape) {
 			this.position = position;
@@ -86,6 +92,7 @@ public class Body implements Drawable {
 			builder.inertiaBody = b.rigidBody.getI().rotate(b.rigidBody.getR().invert()); // converts inertia to the body frame
 			builder.mat = b.mat;
 			builder.boundingVolume = b.boundingVolume;
+			builder.integrator = b.rigidBody.getIntegrator();
 			if (b.rigidBody.isPosFixed()) {
 				builder.fixedPos = true;
 			}
@@ -210,10 +217,16 @@ public class Body implements Drawable {
 		 */
 		public Builder material(Material mat) {this.mat = mat; return this;};
 		/**
-		 * @param boundingVolume Gives the body a custom bounding volume
+		 * @param boundingVolume Gives the body a custom bounding volume. If this is never called, or is called with null,
+		 * a tight volume is fitted to the shape with {@link BoundVolumes#fit(Shape)}.
 		 * @return The updated {@link Builder} object
 		 */
 		public Builder boundVolume(BoundVolume boundingVolume) {this.boundingVolume = boundingVolume; return this;};
+		/**
+		 * @param integrator How the body advances its state each physics frame. Defaults to {@link Integrator#EXPLICIT_EULER}.
+		 * @return The updated {@link Builder} object
+		 */
+		public Builder integrator(Integrator integrator) {this.integrator = integrator; return this;};
 		/**
 		 * Creates the Body object
 		 * @return The {@link Body} object created from this builder.
@@ -227,7 +240,8 @@ public class Body implements Drawable {
 	private Body(Builder builder) {
 		this.mat = builder.mat;
 		this.shape = builder.shape;
-		this.boundingVolume = builder.boundingVolume;
+		this.shapeType = CollisionAlgorithms.typeId(shape.getClass());
+		this.boundingVolume = builder.boundingVolume != null ? builder.boundingVolume : BoundVolumes.fit(builder.shape);
 		this.rigidBody = new RigidBody6DOF(builder.mass, builder.inertiaBody, builder.position, builder.q0, builder.velocity, builder.omegaBody);	
 		if (builder.fixedPos) {			
 			rigidBody.fixPosition();
@@ -239,6 +253,8 @@ public class Body implements Drawable {
 		if (builder.constraint != null) {
 			this.rigidBody.constrainBody(builder.constraint);
 		}
+		this.rigidBody.setIntegrator(builder.integrator);
+		boundingVolume.updateState(rigidBody.getX(), rigidBody.getQ());
 	}
 	
 	/**
@@ -251,8 +267,10 @@ public class Body implements Drawable {
 	Body(PhysicsBody physicsBody, Shape shape, Material mat, BoundVolume bound) {
 		this.mat = mat;
 		this.shape = shape;
+		this.shapeType = CollisionAlgorithms.typeId(shape.getClass());
 		this.rigidBody = physicsBody;
-		this.boundingVolume = bound;
+		this.boundingVolume = bound != null ? bound : BoundVolumes.fit(shape);
+		boundingVolume.updateState(rigidBody.getX(), rigidBody.getQ());
 	}
 	
 	/**
@@ -268,6 +286,14 @@ public class Body implements Drawable {
 		boundingVolume.updateState(rigidBody.getX(), rigidBody.getQ());
 	}
 	
+	/**
+	 * Changes how this body advances its state each physics frame.
+	 * @param integrator the integrator to use
+	 */
+	public void setIntegrator(Integrator integrator) {
+		rigidBody.setIntegrator(integrator);
+	}
+	
 	/**
 	 * Inputs additional forces and torques onto the body. 
 	 * These inputs remain on the body for the duration of objects existence.
@@ -280,15 +306,28 @@ public class Body implements Drawable {
 	}
 	
 	/**
-	 * Inputs a temporary force/torque on a body for a certain duration of time.
+	 * Inputs a temporary force/torque on a body for a certain duration of simulation time.
+	 * Thrusts add up with any other thrusts that are still acting on the body.
 	 * @param force force being exerted on the body
 	 * @param torque torque being exerted on the object
-	 * @param duration the amount of time the force and torque are held for
+	 * @param duration the amount of simulation time the force and torque are held for
 	 */
 	public void thrustInputs(Vector3 force, Vector3 torque, float duration) {
 		rigidBody.thrustInputs(force, torque, duration);
 	}
 	
+	/**
+	 * Inputs a temporary force/torque on a body that replaces the last one from the same source instead of adding to it.
+	 * Use this for input that repeats while a key is held.
+	 * @param source identifies the thrust, for example the input action that made it
+	 * @param force force being exerted on the body
+	 * @param torque torque being exerted on the object
+	 * @param duration the amount of simulation time the force and torque are held for after the last call from this source
+	 */
+	public void holdThrust(Object source, Vector3 force, Vector3 torque, float duration) {
+		rigidBody.holdThrust(source, force, torque, duration);
+	}
+	
 	/**
 	 * The position of this body in 3D space.
 	 * @return position of the body
@@ -316,7 +355,7 @@ public class Body implements Drawable {
 	 */
 	public List<Contact> collisionDetect(Body other) {
 		if (boundingVolume.testOverlap(other.boundingVolume)) {
-			List<CollisionInterface> inters = shape.collisionDetect(other.shape, this.rigidBody, other.rigidBody);
+			List<CollisionInterface> inters = CollisionAlgorithms.getAlgorithm(shapeType, other.shapeType).collisionDetect(shape, other.shape, this.rigidBody, other.rigidBody);
 			 if (inters.size() != 0) {	
 				 List<Contact> contacts = new ArrayList<Contact>();
 				 for (CollisionInterface i : inters) {
@@ -328,6 +367,54 @@ public class Body implements Drawable {
 		return null;
 	}
 
+	/**
+	 * Adds all points of contact between this body and another body to an arena instead of a new list.
+	 * Contacts from algorithms registered the other way around have their normals flipped here.
+	 * 
+	 * @param other The other {@link Body} object
+	 * @param arena The arena the contacts are added to
+	 * @return the number of contacts added
+	 */
+	int collisionDetect(Body other, ContactArena arena) {
+		if (!boundingVolume.testOverlap(other.boundingVolume)) {
+			return 0;
+		}
+		CollisionAlgorithm algorithm = CollisionAlgorithms.getAlgorithm(shapeType, other.shapeType);
+		boolean swapped = algorithm instanceof CollisionAlgorithms.Flipped;
+		List<CollisionInterface> inters;
+		if (!swapped) {
+			inters = algorithm.collisionDetect(shape, other.shape, this.rigidBody, other.rigidBody);
+		} else {
+			inters = ((CollisionAlgorithms.Flipped) algorithm).algorithm.collisionDetect(other.shape, shape, other.rigidBody, this.rigidBody);
+		}
+		for (int i = 0; i < inters.size(); i++) {
+			CollisionInterface inter = inters.get(i);
+			arena.add(this.rigidBody, other.rigidBody, this.mat, other.mat, inter.r, swapped ? inter.n.inverse() : inter.n);
+		}
+		return inters.size();
+	}
+
+	/**
+	 * @return the shape of this body
+	 */
+	Shape getShape() {
+		return shape;
+	}
+	
+	/**
+	 * @return the object that controls the physics of this body
+	 */
+	PhysicsBody getPhysicsBody() {
+		return rigidBody;
+	}
+
+	/**
+	 * @return the world space box around this body's bounding volume as {min, max}, or null if the volume is unbounded
+	 */
+	Pair<Vector3, Vector3> getEnclosingBox() {
+		return boundingVolume.getEnclosingBox();
+	}
+
 	/**
 	 * Determines if a body is fixed
 	 * 
@@ -339,23 +426,53 @@ public class Body implements Drawable {
 	
 	/**
 	 * Draws the Body graphically in the window. 
+	 * The geometry of the shape is drawn from a vertex buffer when the GL context supports them, otherwise
+	 * the shape draws itself in immediate mode.
 	 * 
 	 * @param drawable JOGL drawable object to draw to
 	 */
 	@Override
 	public void draw(GLAutoDrawable drawable) {
 		GL2 gl = drawable.getGL().getGL2();
-		
-		// rotates into the bodies frame of reference
-		gl.glLoadIdentity();                // reset the model-view matrix		
-	    double[] x = rigidBody.getX().toArray();
-	    gl.glTranslated(x[0], x[1], x[2]);    // translate left and into the screen	    
-	    double mag = Math.sqrt( 1 - rigidBody.getQ().s*rigidBody.getQ().s);
-	    gl.glRotated(Math.toDegrees(2 * Math.acos(rigidBody.getQ().s)), rigidBody.getQ().v.x / mag, rigidBody.getQ().v.y / mag, rigidBody.getQ().v.z / mag); // rotate about the y-axis
-	    
-	    if (shape instanceof Drawable) {
-	    	((Drawable) shape).draw(drawable);
-	    }
+		boolean buffered = MeshBuffer.isSupported(gl);
+		if (buffered) {
+			MeshBuffer.begin(gl);
+		}
+		draw(drawable, buffered);
+		if (buffered) {
+			MeshBuffer.end(gl);
+		}
+	}
+	
+	/**
+	 * Draws the body, for universes that draw many bodies between one call to {@link MeshBuffer#begin(GL2)} and
+	 * {@link MeshBuffer#end(GL2)}.
+	 * @param buffered true if the body may draw from the vertex buffer of its shape
+	 */
+	void draw(GLAutoDrawable drawable, boolean buffered) {
+		GL2 gl = drawable.getGL().getGL2();
+		gl.glLoadMatrixd(getModelMatrix(), 0); // replaces the model-view matrix with the bodies frame of reference
+		MeshBuffer mesh = buffered ? MeshBuffer.of(shape) : null;
+		if (mesh != null) {
+			mesh.bind(gl);
+			mesh.draw(gl);
+		} else if (shape instanceof Drawable) {
+			((Drawable) shape).draw(drawable);
+		}
+	}
+	
+	/**
+	 * @return the column major matrix that takes points from body space to world space, valid until the next call
+	 */
+	double[] getModelMatrix() {
+		Matrix3 r = rigidBody.getR();
+		Vector3 x = rigidBody.getX();
+		double[] m = modelMatrix;
+		m[0] = r.xx; m[1] = r.yx; m[2] = r.zx; m[3] = 0;
+		m[4] = r.xy; m[5] = r.yy; m[6] = r.zy; m[7] = 0;
+		m[8] = r.xz; m[9] = r.yz; m[10] = r.zz; m[11] = 0;
+		m[12] = x.x; m[13] = x.y; m[14] = x.z; m[15] = 1;
+		return m;
 	}
 
 
@@ -0,0 +1,264 @@
+package com.jacobschneider.engine.physics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jacobschneider.engine.framework.PhysicsBody;
+import com.jacobschneider.engine.math.Vector3;
+
+/**
+ * Contact generation between two {@link BoxShape} objects using the separating axis theorem.
+ * The 15 candidate axes are the 3 face normals of each box and the 9 cross products of their edges.
+ * A face contact clips the incident face of one box against the side planes of the reference face
+ * of the other box and keeps at most four of the resulting points. An edge contact creates a single point
+ * between the two closest edges. All normals point away from the first box and towards the second box.
+ *
+ * @author Jacob
+ *
+ */
+final class BoxContacts {
+	private static final double RELATIVE_TOLERANCE = 0.95; // favors face contacts, and the first box, so that the manifold does not flip between frames
+	private static final double PARALLEL_TOLERANCE = 0.000001; // cross products of nearly parallel edges are not used as axes
+	private static final int MAX_CONTACTS = 4;
+
+	private BoxContacts() {}
+
+	/**
+	 * Contacts between two boxes.
+	 * @param a the first box
+	 * @param b the second box
+	 * @param aBody the physics body of the first box
+	 * @param bBody the physics body of the second box
+	 * @return up to four contacts in world space
+	 */
+	static List<CollisionInterface> boxBox(BoxShape a, BoxShape b, PhysicsBody aBody, PhysicsBody bBody) {
+		List<CollisionInterface> inters = new ArrayList<CollisionInterface>(MAX_CONTACTS);
+		Vector3 ca = aBody.toWorldSpace(Vector3.zero);
+		Vector3 cb = bBody.toWorldSpace(Vector3.zero);
+		Vector3[] axesA = aBody.getR().toColVectors().toArray(new Vector3[3]);
+		Vector3[] axesB = bBody.getR().toColVectors().toArray(new Vector3[3]);
+		double[] ha = a.getHalfExtents().toArray();
+		double[] hb = b.getHalfExtents().toArray();
+		Vector3 d = cb.subtract(ca);
+
+		// face axes
+		int faceA = -1;
+		double overlapA = Double.POSITIVE_INFINITY;
+		int faceB = -1;
+		double overlapB = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < 3; i++) {
+			double overlap = overlap(axesA[i], d, axesA, ha, axesB, hb);
+			if (overlap < 0) {
+				return inters;
+			}
+			if (overlap < overlapA) {
+				overlapA = overlap;
+				faceA = i;
+			}
+		}
+		for (int i = 0; i < 3; i++) {
+			double overlap = overlap(axesB[i], d, axesA, ha, axesB, hb);
+			if (overlap < 0) {
+				return inters;
+			}
+			if (overlap < overlapB) {
+				overlapB = overlap;
+				faceB = i;
+			}
+		}
+
+		// edge axes
+		int edgeA = -1;
+		int edgeB = -1;
+		Vector3 edgeAxis = null;
+		double overlapEdge = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 3; j++) {
+				Vector3 axis = axesA[i].cross(axesB[j]);
+				double mag = axis.mag();
+				if (mag < PARALLEL_TOLERANCE) {
+					continue;
+				}
+				axis = axis.multScaler(1 / mag);
+				double overlap = overlap(axis, d, axesA, ha, axesB, hb);
+				if (overlap < 0) {
+					return inters;
+				}
+				if (overlap < overlapEdge) {
+					overlapEdge = overlap;
+					edgeA = i;
+					edgeB = j;
+					edgeAxis = axis;
+				}
+			}
+		}
+
+		if (overlapEdge < RELATIVE_TOLERANCE * Math.min(overlapA, overlapB)) {
+			inters.add(edgeContact(edgeAxis, d, ca, axesA, ha, edgeA, cb, axesB, hb, edgeB));
+		} else if (overlapB < RELATIVE_TOLERANCE * overlapA) {
+			faceContacts(inters, cb, axesB, hb, faceB, ca, axesA, ha, true);
+		} else {
+			faceContacts(inters, ca, axesA, ha, faceA, cb, axesB, hb, false);
+		}
+		return inters;
+	}
+
+	/**
+	 * The overlap of the projections of both boxes onto an axis. Negative if the axis separates the boxes.
+	 */
+	private static double overlap(Vector3 axis, Vector3 d, Vector3[] axesA, double[] ha, Vector3[] axesB, double[] hb) {
+		double ra = 0;
+		double rb = 0;
+		for (int i = 0; i < 3; i++) {
+			ra += ha[i] * Math.abs(axesA[i].dot(axis));
+			rb += hb[i] * Math.abs(axesB[i].dot(axis));
+		}
+		return ra + rb - Math.abs(d.dot(axis));
+	}
+
+	/**
+	 * Clips the incident face of one box against the reference face of the other box.
+	 * @param flip true if the reference box is the second box, in which case the normals are reversed
+	 */
+	private static void faceContacts(List<CollisionInterface> inters, Vector3 cRef, Vector3[] axesRef, double[] hRef, int face,
+									 Vector3 cInc, Vector3[] axesInc, double[] hInc, boolean flip) {
+		Vector3 nRef = axesRef[face];
+		if (nRef.dot(cInc.subtract(cRef)) < 0) {
+			nRef = nRef.inverse();
+		}
+
+		// the incident face is the face of the other box most anti-parallel to the reference normal
+		int inc = 0;
+		double best = -1;
+		for (int i = 0; i < 3; i++) {
+			double dot = Math.abs(axesInc[i].dot(nRef));
+			if (dot > best) {
+				best = dot;
+				inc = i;
+			}
+		}
+		Vector3 nInc = axesInc[inc].dot(nRef) > 0 ? axesInc[inc].inverse() : axesInc[inc];
+		Vector3 incCenter = cInc.add(nInc.multScaler(hInc[inc]));
+		Vector3 u = axesInc[(inc + 1) % 3].multScaler(hInc[(inc + 1) % 3]);
+		Vector3 v = axesInc[(inc + 2) % 3].multScaler(hInc[(inc + 2) % 3]);
+		List<Vector3> poly = new ArrayList<Vector3>(8);
+		poly.add(incCenter.add(u).add(v));
+		poly.add(incCenter.subtract(u).add(v));
+		poly.add(incCenter.subtract(u).subtract(v));
+		poly.add(incCenter.add(u).subtract(v));
+
+		// clip against the four side planes of the reference face
+		int side1 = (face + 1) % 3;
+		int side2 = (face + 2) % 3;
+		poly = clip(poly, axesRef[side1], cRef, hRef[side1]);
+		poly = clip(poly, axesRef[side1].inverse(), cRef, hRef[side1]);
+		poly = clip(poly, axesRef[side2], cRef, hRef[side2]);
+		poly = clip(poly, axesRef[side2].inverse(), cRef, hRef[side2]);
+
+		// keep the points below the reference face, each contact is halfway between the two faces
+		Vector3 refCenter = cRef.add(nRef.multScaler(hRef[face]));
+		List<Vector3> points = new ArrayList<Vector3>(poly.size());
+		for (Vector3 p : poly) {
+			double sep = nRef.dot(p.subtract(refCenter));
+			if (sep <= 0) {
+				points.add(p.subtract(nRef.multScaler(sep / 2)));
+			}
+		}
+		if (points.size() > MAX_CONTACTS) {
+			points = reduce(points, axesRef[side1], axesRef[side2]);
+		}
+
+		Vector3 n = flip ? nRef.inverse() : nRef;
+		for (Vector3 p : points) {
+			inters.add(new CollisionInterface(p, n));
+		}
+	}
+
+	/**
+	 * Sutherland-Hodgman clipping of a polygon against the plane normal.dot(p - center) = offset.
+	 * Points with normal.dot(p - center) <= offset are kept.
+	 */
+	private static List<Vector3> clip(List<Vector3> poly, Vector3 normal, Vector3 center, double offset) {
+		List<Vector3> out = new ArrayList<Vector3>(poly.size() + 1);
+		if (poly.isEmpty()) {
+			return out;
+		}
+		Vector3 prev = poly.get(poly.size() - 1);
+		double prevDist = normal.dot(prev.subtract(center)) - offset;
+		for (Vector3 p : poly) {
+			double dist = normal.dot(p.subtract(center)) - offset;
+			if ((prevDist <= 0) != (dist <= 0)) { // edge crosses the plane
+				double t = prevDist / (prevDist - dist);
+				out.add(prev.add(p.subtract(prev).multScaler(t)));
+			}
+			if (dist <= 0) {
+				out.add(p);
+			}
+			prev = p;
+			prevDist = dist;
+		}
+		return out;
+	}
+
+	/**
+	 * Keeps the four points that are furthest along the diagonals of the reference face.
+	 */
+	private static List<Vector3> reduce(List<Vector3> points, Vector3 u, Vector3 v) {
+		Vector3[] dirs = new Vector3[] {u.add(v), u.subtract(v), v.subtract(u), u.add(v).inverse()};
+		List<Vector3> kept = new ArrayList<Vector3>(MAX_CONTACTS);
+		for (Vector3 dir : dirs) {
+			Vector3 best = points.get(0);
+			for (Vector3 p : points) {
+				if (p.dot(dir) > best.dot(dir)) {
+					best = p;
+				}
+			}
+			if (!kept.contains(best)) {
+				kept.add(best);
+			}
+		}
+		return kept;
+	}
+
+	/**
+	 * A single contact halfway between the closest points of two edges. See Ericson, Real-Time Collision Detection 5.1.8.
+	 */
+	private static CollisionInterface edgeContact(Vector3 axis, Vector3 d, Vector3 ca, Vector3[] axesA, double[] ha, int edgeA,
+												  Vector3 cb, Vector3[] axesB, double[] hb, int edgeB) {
+		Vector3 n = axis.dot(d) < 0 ? axis.inverse() : axis;
+
+		// the edge of A furthest along n and the edge of B furthest against n
+		Vector3 pa = ca;
+		Vector3 pb = cb;
+		for (int i = 0; i < 3; i++) {
+			if (i != edgeA) {
+				pa = pa.add(axesA[i].multScaler(axesA[i].dot(n) > 0 ? ha[i] : -ha[i]));
+			}
+			if (i != edgeB) {
+				pb = pb.add(axesB[i].multScaler(axesB[i].dot(n) > 0 ? -hb[i] : hb[i]));
+			}
+		}
+
+		Vector3 ua = axesA[edgeA];
+		Vector3 ub = axesB[edgeB];
+		Vector3 r = pa.subtract(pb);
+		double dir = ua.dot(ub);
+		double c = ua.dot(r);
+		double f = ub.dot(r);
+		double denom = 1 - dir * dir; // not zero, parallel edges are never used as an axis
+		double s = clamp((dir * f - c) / denom, ha[edgeA]);
+		double tFree = dir * s + f;
+		double t = clamp(tFree, hb[edgeB]);
+		if (t != tFree) { // the closest point was past the end of B's edge, so find the point on A closest to that end
+			s = clamp(dir * t - c, ha[edgeA]);
+		}
+		Vector3 onA = pa.add(ua.multScaler(s));
+		Vector3 onB = pb.add(ub.multScaler(t));
+		return new CollisionInterface(onA.add(onB).multScaler(0.5), n);
+	}
+
+	private static double clamp(double value, double limit) {
+		return Math.max(-limit, Math.min(limit, value));
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.jacobschneider.engine.physics;
+
+import com.jacobschneider.engine.framework.ConvexShape;
+import com.jacobschneider.engine.math.Vector3;
+
+/**
+ * A cuboid centered on the origin of its body and aligned with the body axes.
+ * Collisions between two boxes are found with the separating axis theorem and the contact
+ * manifold is built by clipping the incident face against the reference face, which gives up
+ * to four contacts and allows boxes to stack. Collisions with other {@link ConvexShape} objects use GJK
+ * and everything else falls back to the triangles of {@link Shapes#newCuboid(double, double, double)}.
+ *
+ * @author Jacob
+ *
+ */
+public class BoxShape extends BasicShape implements ConvexShape {
+	private final Vector3 halfExtents;
+
+	/**
+	 * Creates a box shape.
+	 * @param x half of the length of the box along the body x axis
+	 * @param y half of the length of the box along the body y axis
+	 * @param z half of the length of the box along the body z axis
+	 */
+	public BoxShape(double x, double y, double z) {
+		super(Shapes.newCuboid(x, y, z));
+		if (x <= 0 || y <= 0 || z <= 0) {
+			throw new IllegalArgumentException("A box must have positive dimensions");
+		}
+		this.halfExtents = new Vector3(x, y, z);
+	}
+
+	/**
+	 * @return half of the length of the box along each body axis
+	 */
+	public Vector3 getHalfExtents() {
+		return halfExtents;
+	}
+
+	@Override
+	public Vector3 support(Vector3 dir) {
+		return new Vector3(dir.x < 0 ? -halfExtents.x : halfExtents.x,
+						   dir.y < 0 ? -halfExtents.y : halfExtents.y,
+						   dir.z < 0 ? -halfExtents.z : halfExtents.z);
+	}
+
+	@Override
+	public Vector3 getCenter() {
+		return Vector3.zero;
+	}
+
+}
@@ -1,10 +1,15 @@
 package com.jacobschneider.engine.physics;
 
+import java.util.Collections;
+import java.util.List;
+
 import com.jacobschneider.engine.framework.PhysicsBody;
 import com.jacobschneider.engine.math.Vector3;
 
 /**
  * Represents all the all of the contacts that occur on one body in a single physics frame.
+ * When the body is linked to other bodies by {@link Joint} objects, it represents the contacts of every body in the
+ * linked group and the joints between them, which are solved together in the same loop.
  * The heart of the engine is implemented here.
  * 
  * @author Jacob
@@ -28,14 +33,47 @@ final class Collision {
 	private static final double STATIC_FRICTION_COEFF = 2.0;
 	
 	
-	private Contact[] contacts;	
+	private final Contact[] contacts;
+	private final int start; // first contact in this collision
+	private final int end; // one past the last contact in this collision
+	private final List<Joint> joints; // solved in the same loop as the contacts
+	private final double deltaTime;
 	
 	Collision(Contact[] contacts) {
+		this(contacts, 0, contacts.length);
+	}
+	
+	/**
+	 * Creates a collision from part of an array, usually the array of a {@link ContactArena}.
+	 * @param contacts the array of contacts
+	 * @param start index of the first contact
+	 * @param end index one past the last contact
+	 */
+	Collision(Contact[] contacts, int start, int end) {
+		this(contacts, start, end, Collections.<Joint>emptyList(), 0);
+	}
+	
+	/**
+	 * Creates a collision from part of an array of contacts and the joints that link the bodies touching.
+	 * @param contacts the array of contacts
+	 * @param start index of the first contact
+	 * @param end index one past the last contact
+	 * @param joints the joints solved with the contacts
+	 * @param deltaTime the length of this physics frame, joints correct their position error over a few frames
+	 */
+	Collision(Contact[] contacts, int start, int end, List<Joint> joints, double deltaTime) {
 		this.contacts = contacts;
+		this.start = start;
+		this.end = end;
+		this.joints = joints;
+		this.deltaTime = deltaTime;
 	}
 	
 	
 	private void collideUntilDone() {	
+		for (int i = 0; i < joints.size(); i++) {
+			joints.get(i).prepare(deltaTime);
+		}
 		int loopCount = 0;
 		boolean continueLooping = true;
 		while (continueLooping) {
@@ -46,17 +84,22 @@ final class Collision {
 				return;
 			}
 			continueLooping = false;
-			for (int i = 0; i < contacts.length; i++) {
+			for (int i = start; i < end; i++) {
 				if (contacts[i].getContactType(i) == ContactType.Colliding) {
 					contacts[i].collide();
 					continueLooping = true; // if any contacts are still colliding continue looping
 				}
 			}
+			for (int i = 0; i < joints.size(); i++) {
+				if (joints.get(i).solve()) {
+					continueLooping = true; // as are any joints that are still being pulled apart
+				}
+			}
 		}
 	}
 	
 	/**
-	 * Reconciles all the contacts in this collision. Calculates impulses between bodies and enacts the impulses.
+	 * Reconciles all the contacts and joints in this collision. Calculates impulses between bodies and enacts the impulses.
 	 */
 	public void collide() {	
 		collideUntilDone();
@@ -70,19 +113,20 @@ final class Collision {
 	/**
 	 * An object that represents a single point of contact b/w two bodies. It is completely defined by the point of contact, a plane of contact,
 	 * and the colliding bodies.
+	 * Contacts are mutable so that a {@link ContactArena} can reuse them every frame.
 	 * 
 	 * @author Jacob
 	 *
 	 */
 	static class Contact {
-		private final PhysicsBody a; // should be the same for all contacts in this collision
-		private final Material matA;
-		private final PhysicsBody b; // for conceptual purposes you can assume this body is fixed
-		private final Material matB;
+		private PhysicsBody a; // should be the same for all contacts in this collision
+		private Material matA;
+		private PhysicsBody b; // for conceptual purposes you can assume this body is fixed
+		private Material matB;
 		private Vector3 p; // world space vertex location // not currently used
-		private final Vector3 n; // normal to plane of contact (collision plane)
+		private Vector3 n; // normal to plane of contact (collision plane)
 		
-		private final Vector3 ra,rb; // vectors from bodies center of masses to contact point (p)
+		private Vector3 ra,rb; // vectors from bodies center of masses to contact point (p)
 		
 		private Vector3 vpa; // velocity of point p on a
 		private Vector3 vpb; // velocity of point p on b
@@ -100,6 +144,13 @@ final class Collision {
 		 * @param n
 		 */
 		Contact(PhysicsBody a, PhysicsBody b, Material matA, Material matB, Vector3 p, Vector3 n) {
+			set(a, b, matA, matB, p, n);
+		}
+		
+		/**
+		 * Replaces everything about this contact. Normal vector should be pointing away from body A and towards body B
+		 */
+		void set(PhysicsBody a, PhysicsBody b, Material matA, Material matB, Vector3 p, Vector3 n) {
 			this.a = a;
 			this.b = b;
 			this.p = p;
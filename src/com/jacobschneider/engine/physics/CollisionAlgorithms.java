@@ -0,0 +1,305 @@
+package com.jacobschneider.engine.physics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.jacobschneider.engine.framework.CollisionAlgorithm;
+import com.jacobschneider.engine.framework.ConvexShape;
+import com.jacobschneider.engine.framework.PhysicsBody;
+import com.jacobschneider.engine.framework.Shape;
+
+/**
+ * A registry of {@link CollisionAlgorithm} implementations keyed by a pair of {@link Shape} classes.
+ * Every shape class is given a small integer type id the first time it is seen, and the algorithm for every pair
+ * of type ids is resolved into a table, so a {@link Body} that keeps the type id of its shape finds its algorithm
+ * with two array lookups.
+ * An algorithm registered for (A, B) is also used for (B, A) with the arguments swapped and the normals flipped.
+ * If more than one registered algorithm applies, the one registered for the most specific classes is used and
+ * ties go to the algorithm registered last. Pairs that match nothing else ask the first shape through
+ * {@link Shape#collisionDetect(Shape, PhysicsBody, PhysicsBody)}. A shape that hands the pair back to
+ * {@link #collisionDetect(Shape, Shape, PhysicsBody, PhysicsBody)}, as {@link BasicShape} does, is taken to have
+ * no algorithm of its own, so the second shape is asked next and {@link #SEGMENTS} is used if it hands the pair back too.
+ *
+ * @author Jacob
+ *
+ */
+public final class CollisionAlgorithms {
+	/**
+	 * The generic algorithm that intersects the segments of each shape with the primitives of the other.
+	 * Works for any pair of shapes.
+	 */
+	public static final CollisionAlgorithm SEGMENTS = new CollisionAlgorithm() {
+		@Override
+		public List<CollisionInterface> collisionDetect(Shape a, Shape b, PhysicsBody aBody, PhysicsBody bBody) {
+			return BasicShape.segmentCollisionDetect(a, b, aBody, bBody);
+		}
+	};
+
+	/**
+	 * Asks the shapes of a pair with no registered algorithm for their contacts, see {@link Asking}.
+	 */
+	private static final CollisionAlgorithm SHAPE_METHOD = new CollisionAlgorithm() {
+		@Override
+		public List<CollisionInterface> collisionDetect(Shape a, Shape b, PhysicsBody aBody, PhysicsBody bBody) {
+			Asking current = asking.get();
+			if (current == null || !current.isPair(a, b, aBody, bBody)) { // ask the first shape
+				asking.set(new Asking(a, b, aBody, bBody));
+				try {
+					return a.collisionDetect(b, aBody, bBody);
+				} finally {
+					asking.set(current);
+				}
+			}
+			if (!current.askedSecond) { // the first shape handed the pair back, ask the other one
+				current.askedSecond = true;
+				List<CollisionInterface> inters = current.second.collisionDetect(current.first, current.secondBody, current.firstBody);
+				return a == current.first && aBody == current.firstBody ? CollisionInterface.flipNormals(inters) : inters;
+			}
+			// neither shape has an algorithm of its own, intersected in the order the pair was first asked in
+			List<CollisionInterface> inters = SEGMENTS.collisionDetect(current.first, current.second, current.firstBody, current.secondBody);
+			return a == current.first && aBody == current.firstBody ? inters : CollisionInterface.flipNormals(inters);
+		}
+	};
+	// the pair whose shapes are being asked on each thread, so a shape that hands the pair back is not asked again
+	private static final ThreadLocal<Asking> asking = new ThreadLocal<Asking>();
+
+	private static final List<Registration> registrations = new ArrayList<Registration>();
+	private static final Map<Class<?>, Integer> typeIds = new ConcurrentHashMap<Class<?>, Integer>(); // every class that has been given an id
+	private static final List<Class<?>> types = new ArrayList<Class<?>>(); // index is the type id
+	// table[i][j] is called with a shape of type id i first, replaced, never modified, whenever a registration or type is added
+	private static volatile CollisionAlgorithm[][] table = new CollisionAlgorithm[0][0];
+
+	/**
+	 * Load all the default algorithms
+	 */
+	static {
+		putAlgorithm(Shape.class, Shape.class, SHAPE_METHOD);
+		putAlgorithm(HullShape.class, Shape.class, new HullFallback());
+		putAlgorithm(ConvexShape.class, ConvexShape.class, new ConvexConvex());
+		putAlgorithm(SphereShape.class, BasicShape.class, new SphereBasic());
+		putAlgorithm(SphereShape.class, SphereShape.class, new SphereSphere());
+		putAlgorithm(BoxShape.class, BoxShape.class, new BoxBox());
+	}
+
+	private CollisionAlgorithms() {}
+
+	/**
+	 * Registers an algorithm for a pair of shape classes. The algorithm is also used for any subclasses
+	 * unless a more specific algorithm is registered.
+	 * @param a the class of the first shape the algorithm accepts
+	 * @param b the class of the second shape the algorithm accepts
+	 * @param algorithm the algorithm
+	 */
+	public static synchronized void putAlgorithm(Class<? extends Shape> a, Class<? extends Shape> b, CollisionAlgorithm algorithm) {
+		if (a == null || b == null || algorithm == null) {
+			throw new IllegalArgumentException("Shape classes and algorithm must not be null");
+		}
+		registrations.add(new Registration(a, b, algorithm));
+		rebuildTable();
+	}
+
+	/**
+	 * Retrieves the type id of a shape class, creating a new id if the class has never been seen before.
+	 * @param type the class of a shape
+	 * @return the index of the class in the algorithm table
+	 */
+	static int typeId(Class<? extends Shape> type) {
+		Integer id = typeIds.get(type);
+		return id != null ? id : newTypeId(type);
+	}
+
+	private static synchronized int newTypeId(Class<? extends Shape> type) {
+		Integer id = typeIds.get(type);
+		if (id == null) {
+			id = types.size();
+			types.add(type);
+			rebuildTable();
+			typeIds.put(type, id); // only once the table has a row for it
+		}
+		return id;
+	}
+
+	/**
+	 * Resolves the algorithm for every pair of type ids into a new table.
+	 */
+	private static void rebuildTable() {
+		int n = types.size();
+		CollisionAlgorithm[][] t = new CollisionAlgorithm[n][n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				t[i][j] = resolve(types.get(i), types.get(j));
+			}
+		}
+		table = t;
+	}
+
+	/**
+	 * Retrieves the algorithm used between two classes of shapes.
+	 * @param a the class of the first shape
+	 * @param b the class of the second shape
+	 * @return the algorithm that should be called with a shape of class a first
+	 */
+	public static CollisionAlgorithm getAlgorithm(Class<? extends Shape> a, Class<? extends Shape> b) {
+		int i = typeId(a);
+		int j = typeId(b);
+		return table[i][j];
+	}
+
+	/**
+	 * Retrieves the algorithm used between two shape type ids.
+	 * An algorithm that swaps its arguments is a {@link Flipped}, so callers can run the algorithm it wraps
+	 * and flip the normals as they read the contacts instead of allocating flipped copies.
+	 * @param a the type id of the first shape, from {@link #typeId(Class)}
+	 * @param b the type id of the second shape
+	 * @return the algorithm that should be called with a shape of type a first
+	 */
+	static CollisionAlgorithm getAlgorithm(int a, int b) {
+		return table[a][b];
+	}
+
+	/**
+	 * Detects all collisions between two shapes using the registered algorithm.
+	 * @param a The first shape.
+	 * @param b The second shape.
+	 * @param aBody The {@link PhysicsBody} attached to the first shape's body
+	 * @param bBody The {@link PhysicsBody} attached to the second shape's body
+	 * @return A list of collisions with normals pointing away from the first shape.
+	 */
+	public static List<CollisionInterface> collisionDetect(Shape a, Shape b, PhysicsBody aBody, PhysicsBody bBody) {
+		return getAlgorithm(a.getClass(), b.getClass()).collisionDetect(a, b, aBody, bBody);
+	}
+
+	private static CollisionAlgorithm resolve(Class<?> a, Class<?> b) {
+		// every registration that accepts the pair, as the classes it covers in the order of the arguments
+		List<Class<?>[]> covered = new ArrayList<Class<?>[]>();
+		List<CollisionAlgorithm> algorithms = new ArrayList<CollisionAlgorithm>();
+		for (Registration r : registrations) {
+			if (r.a.isAssignableFrom(a) && r.b.isAssignableFrom(b)) {
+				covered.add(new Class<?>[] {r.a, r.b});
+				algorithms.add(r.algorithm);
+			} else if (r.a.isAssignableFrom(b) && r.b.isAssignableFrom(a)) {
+				covered.add(new Class<?>[] {r.b, r.a});
+				algorithms.add(new Flipped(r.algorithm));
+			}
+		}
+		// the last registered algorithm that no other algorithm is more specific than
+		for (int i = covered.size() - 1; i >= 0; i--) {
+			boolean mostSpecific = true;
+			for (int j = 0; j < covered.size(); j++) {
+				if (isMoreSpecific(covered.get(j)[0], covered.get(j)[1], covered.get(i)[0], covered.get(i)[1])) {
+					mostSpecific = false;
+					break;
+				}
+			}
+			if (mostSpecific) {
+				return algorithms.get(i);
+			}
+		}
+		return SHAPE_METHOD;
+	}
+
+	/**
+	 * @return true if the pair (a1, b1) is strictly more specific than the pair (a2, b2)
+	 */
+	private static boolean isMoreSpecific(Class<?> a1, Class<?> b1, Class<?> a2, Class<?> b2) {
+		return a2.isAssignableFrom(a1) && b2.isAssignableFrom(b1) && (a1 != a2 || b1 != b2);
+	}
+
+	private static final class Registration {
+		final Class<? extends Shape> a;
+		final Class<? extends Shape> b;
+		final CollisionAlgorithm algorithm;
+
+		Registration(Class<? extends Shape> a, Class<? extends Shape> b, CollisionAlgorithm algorithm) {
+			this.a = a;
+			this.b = b;
+			this.algorithm = algorithm;
+		}
+	}
+
+	/**
+	 * A pair of shapes that {@link #SHAPE_METHOD} is asking for contacts.
+	 */
+	private static final class Asking {
+		final Shape first, second;
+		final PhysicsBody firstBody, secondBody;
+		boolean askedSecond = false;
+
+		Asking(Shape first, Shape second, PhysicsBody firstBody, PhysicsBody secondBody) {
+			this.first = first;
+			this.second = second;
+			this.firstBody = firstBody;
+			this.secondBody = secondBody;
+		}
+
+		boolean isPair(Shape a, Shape b, PhysicsBody aBody, PhysicsBody bBody) {
+			return (a == first && b == second && aBody == firstBody && bBody == secondBody)
+					|| (a == second && b == first && aBody == secondBody && bBody == firstBody);
+		}
+	}
+
+	/**
+	 * Runs an algorithm with its arguments swapped.
+	 */
+	static final class Flipped implements CollisionAlgorithm {
+		final CollisionAlgorithm algorithm; // called with the arguments swapped
+
+		Flipped(CollisionAlgorithm algorithm) {
+			this.algorithm = algorithm;
+		}
+
+		@Override
+		public List<CollisionInterface> collisionDetect(Shape a, Shape b, PhysicsBody aBody, PhysicsBody bBody) {
+			return CollisionInterface.flipNormals(algorithm.collisionDetect(b, a, bBody, aBody));
+		}
+	}
+
+	private static final class SphereSphere implements CollisionAlgorithm {
+		@Override
+		public List<CollisionInterface> collisionDetect(Shape a, Shape b, PhysicsBody aBody, PhysicsBody bBody) {
+			return SphereContacts.sphereSphere((SphereShape) a, (SphereShape) b, aBody, bBody);
+		}
+	}
+
+	private static final class SphereBasic implements CollisionAlgorithm {
+		@Override
+		public List<CollisionInterface> collisionDetect(Shape a, Shape b, PhysicsBody aBody, PhysicsBody bBody) {
+			if (SphereContacts.isSupported(b)) {
+				return SphereContacts.sphereShape((SphereShape) a, b, aBody, bBody, false);
+			}
+			return BasicShape.segmentCollisionDetect(a, b, aBody, bBody);
+		}
+	}
+
+	private static final class BoxBox implements CollisionAlgorithm {
+		@Override
+		public List<CollisionInterface> collisionDetect(Shape a, Shape b, PhysicsBody aBody, PhysicsBody bBody) {
+			return BoxContacts.boxBox((BoxShape) a, (BoxShape) b, aBody, bBody);
+		}
+	}
+
+	private static final class ConvexConvex implements CollisionAlgorithm {
+		@Override
+		public List<CollisionInterface> collisionDetect(Shape a, Shape b, PhysicsBody aBody, PhysicsBody bBody) {
+			List<CollisionInterface> inters = new ArrayList<CollisionInterface>(1);
+			CollisionInterface inter = Gjk.penetration((ConvexShape) a, (ConvexShape) b, aBody, bBody);
+			if (inter != null) {
+				inters.add(inter);
+			}
+			return inters;
+		}
+	}
+
+	/**
+	 * A hull against a shape that is not convex collides using the shape the hull was made from.
+	 */
+	private static final class HullFallback implements CollisionAlgorithm {
+		@Override
+		public List<CollisionInterface> collisionDetect(Shape a, Shape b, PhysicsBody aBody, PhysicsBody bBody) {
+			return CollisionAlgorithms.collisionDetect(((HullShape) a).getBasicShape(), b, aBody, bBody);
+		}
+	}
+
+}
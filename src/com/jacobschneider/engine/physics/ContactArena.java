@@ -0,0 +1,61 @@
+package com.jacobschneider.engine.physics;
+
+import java.util.Arrays;
+
+import com.jacobschneider.engine.framework.PhysicsBody;
+import com.jacobschneider.engine.math.Vector3;
+import com.jacobschneider.engine.physics.Collision.Contact;
+
+/**
+ * A reusable store of {@link Contact} objects.
+ * A universe keeps one arena and clears it instead of allocating new contacts, lists and arrays every frame.
+ * Contacts handed out by the arena are only valid until the next call to {@link #clear()}.
+ *
+ * @author Jacob
+ *
+ */
+final class ContactArena {
+	private Contact[] contacts = new Contact[16]; // slots past size hold contacts waiting to be reused
+	private int size = 0;
+
+	/**
+	 * Adds a contact, reusing an old contact object if one is available.
+	 * Normal vector should be pointing away from body A and towards body B
+	 */
+	Contact add(PhysicsBody a, PhysicsBody b, Material matA, Material matB, Vector3 p, Vector3 n) {
+		if (size == contacts.length) {
+			contacts = Arrays.copyOf(contacts, size * 2);
+		}
+		Contact c = contacts[size];
+		if (c == null) {
+			c = new Contact(a, b, matA, matB, p, n);
+			contacts[size] = c;
+		} else {
+			c.set(a, b, matA, matB, p, n);
+		}
+		size++;
+		return c;
+	}
+
+	/**
+	 * Empties the arena without releasing its contacts.
+	 */
+	void clear() {
+		size = 0;
+	}
+
+	/**
+	 * @return the number of contacts added since the last call to {@link #clear()}
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @return the contacts, only the first {@link #size()} are in use. The array is replaced when the arena grows.
+	 */
+	Contact[] getContacts() {
+		return contacts;
+	}
+
+}
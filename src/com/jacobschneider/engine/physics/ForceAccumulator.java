@@ -0,0 +1,187 @@
+package com.jacobschneider.engine.physics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import com.jacobschneider.engine.framework.VectorField;
+import com.jacobschneider.engine.math.Vector3;
+
+/**
+ * Evaluates every force field of a universe for every moving body in one pass.
+ * The positions of the bodies are packed into one array and each field is evaluated over all of them with
+ * {@link VectorField#addValues(double[], Vector3, int, int, double[])}, so no vectors are created per body per field.
+ * Inverse square sources can instead be added as points, they are then summed with a {@link BarnesHutTree}.
+ * Universes with a lot of bodies and fields are split across all available processors, using one pool of
+ * daemon threads shared by every accumulator so that universes that are thrown away leave no threads behind.
+ * A universe keeps one accumulator and clears it at the start of every step.
+ *
+ * @author Jacob
+ *
+ */
+final class ForceAccumulator {
+	private static final int MIN_EVALUATIONS_PER_TASK = 4096; // below this the fields are not worth spreading across threads
+	private static final int NO_OWNER = -1;
+
+	private final List<VectorField> fields = new ArrayList<VectorField>();
+	private int[] owners = new int[16]; // index of the body that creates each field, that body feels no force from it
+	private double[] points = new double[0]; // packed positions of the bodies
+	private double[] forces = new double[0]; // packed total force on each body
+	private BarnesHutTree sources = null; // inverse square sources, null when they are added as fields
+
+	/**
+	 * Removes every field.
+	 */
+	void clear() {
+		fields.clear();
+		if (sources != null) {
+			sources.clear();
+		}
+	}
+	
+	/**
+	 * Sets how inverse square sources are grouped. Clears every source.
+	 * @param openingAngle the opening angle of the {@link BarnesHutTree}, or 0 to stop grouping sources
+	 */
+	void setOpeningAngle(double openingAngle) {
+		this.sources = openingAngle == 0 ? null : new BarnesHutTree(openingAngle);
+	}
+	
+	/**
+	 * @return true if inverse square sources can be added with {@link #addSource(Vector3, double, int)}
+	 */
+	boolean groupsSources() {
+		return sources != null;
+	}
+	
+	/**
+	 * Adds a point source of an inverse square force that acts on every body except for the body at index owner.
+	 * The force on a body at p is strength * (x - p) / |x - p|^3.
+	 * @param x position of the source
+	 * @param strength strength of the source, must be positive
+	 * @param owner index of the body creating the source or -1
+	 */
+	void addSource(Vector3 x, double strength, int owner) {
+		if (sources == null) {
+			throw new IllegalStateException("Sources are only grouped when there is an opening angle");
+		}
+		sources.add(x.x, x.y, x.z, strength, owner);
+	}
+
+	/**
+	 * Adds a field that acts on every body.
+	 */
+	void addField(VectorField field) {
+		addField(field, NO_OWNER);
+	}
+
+	/**
+	 * Adds a field that acts on every body except for the body at index owner.
+	 */
+	void addField(VectorField field, int owner) {
+		if (fields.size() == owners.length) {
+			owners = Arrays.copyOf(owners, owners.length * 2);
+		}
+		owners[fields.size()] = owner;
+		fields.add(field);
+	}
+
+	/**
+	 * Evaluates every field at the current position of every body.
+	 * @param bodies the bodies that feel the fields
+	 * @return the packed total force on each body, the force on body i is at index 3i.
+	 * The array is reused by the next call.
+	 */
+	double[] accumulate(List<Body> bodies) {
+		final int n = bodies.size();
+		if (points.length < 3 * n) {
+			points = new double[3 * n];
+			forces = new double[3 * n];
+		}
+		for (int i = 0; i < n; i++) {
+			Vector3 x = bodies.get(i).getX();
+			points[3*i] = x.x;
+			points[3*i+1] = x.y;
+			points[3*i+2] = x.z;
+		}
+
+		int numSources = 0;
+		if (sources != null) {
+			sources.build();
+			numSources = sources.size();
+		}
+
+		int processors = Runtime.getRuntime().availableProcessors();
+		long evaluations = (long) n * (fields.size() + Math.min(numSources, 64)); // roughly the cost of a tree walk
+		final int numTasks = (int) Math.max(1, Math.min(Math.min(processors, n), evaluations / MIN_EVALUATIONS_PER_TASK));
+		if (numTasks == 1) {
+			accumulate(0, n);
+			return forces;
+		}
+
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		for (int i = 0; i < numTasks; i++) {
+			final int from = (int) ((long) n * i / numTasks);
+			final int to = (int) ((long) n * (i + 1) / numTasks);
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					accumulate(from, to);
+					return null;
+				}
+			});
+		}
+		try {
+			for (Future<Void> f : SharedPool.EXEC.invokeAll(tasks)) {
+				f.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while evaluating force fields", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Failed to evaluate force fields", e.getCause());
+		}
+		return forces;
+	}
+
+	/**
+	 * Holds the pool shared by every accumulator, created the first time a step is big enough to need it.
+	 */
+	private static final class SharedPool {
+		static final ExecutorService EXEC = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "ForceAccumulator");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+
+	/**
+	 * Sums every field over the bodies from, from + 1 ... to - 1.
+	 */
+	private void accumulate(int from, int to) {
+		Arrays.fill(forces, 3 * from, 3 * to, 0);
+		for (int j = 0; j < fields.size(); j++) {
+			VectorField f = fields.get(j);
+			int owner = owners[j];
+			if (owner < from || owner >= to) {
+				f.addValues(points, Vector3.zero, from, to, forces);
+			} else { // skip the body creating the field
+				f.addValues(points, Vector3.zero, from, owner, forces);
+				f.addValues(points, Vector3.zero, owner + 1, to, forces);
+			}
+		}
+		if (sources != null) {
+			sources.addForces(points, from, to, forces);
+		}
+	}
+
+}
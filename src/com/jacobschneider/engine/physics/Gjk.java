@@ -0,0 +1,332 @@
+package com.jacobschneider.engine.physics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jacobschneider.engine.framework.ConvexShape;
+import com.jacobschneider.engine.framework.PhysicsBody;
+import com.jacobschneider.engine.math.Vector3;
+
+/**
+ * Overlap and penetration tests between two {@link ConvexShape} objects.
+ * GJK determines whether the Minkowski difference A - B contains the origin and EPA
+ * then expands the final GJK simplex to find the penetration normal and depth.
+ * All calculations are in world space.
+ *
+ * @author Jacob
+ *
+ */
+final class Gjk {
+	private static final int MAX_GJK_ITERATIONS = 64;
+	private static final int MAX_EPA_ITERATIONS = 64;
+	private static final double EPA_TOLERANCE = 0.000001;
+
+	/**
+	 * A point on the Minkowski difference along with the points on A and B that created it.
+	 */
+	private static final class Vertex {
+		final Vector3 p; // a - b
+		final Vector3 a;
+		final Vector3 b;
+
+		Vertex(Vector3 a, Vector3 b) {
+			this.a = a;
+			this.b = b;
+			this.p = a.subtract(b);
+		}
+	}
+
+	/**
+	 * A triangle on the EPA polytope. Vertices are indices into the polytope and are wound so that the normal
+	 * points away from the inside of the polytope. The origin can lie on the plane of a face so the winding
+	 * is decided with a point that is strictly inside the polytope instead.
+	 */
+	private static final class Face {
+		final int i, j, k;
+		final Vector3 n; // outward unit normal
+		final double dist; // distance from the origin to the plane of the face
+
+		Face(List<Vertex> verts, int i, int j, int k, Vector3 inside) {
+			Vector3 a = verts.get(i).p;
+			Vector3 n = verts.get(j).p.subtract(a).cross(verts.get(k).p.subtract(a)).normalize();
+			if (n.dot(a.subtract(inside)) < 0) { // wound the wrong way
+				int temp = j;
+				j = k;
+				k = temp;
+				n = n.inverse();
+			}
+			double dist = n.dot(a);
+			this.i = i;
+			this.j = j;
+			this.k = k;
+			this.n = n;
+			this.dist = n.equals(Vector3.zero) ? Double.POSITIVE_INFINITY : dist; // degenerate faces are never the closest
+		}
+	}
+
+	private final ConvexShape shapeA;
+	private final ConvexShape shapeB;
+	private final PhysicsBody bodyA;
+	private final PhysicsBody bodyB;
+
+	// the current simplex, the newest point is always last
+	private final Vertex[] simplex = new Vertex[4];
+	private int size = 0;
+	private Vector3 dir;
+
+	private Gjk(ConvexShape shapeA, ConvexShape shapeB, PhysicsBody bodyA, PhysicsBody bodyB) {
+		this.shapeA = shapeA;
+		this.shapeB = shapeB;
+		this.bodyA = bodyA;
+		this.bodyB = bodyB;
+	}
+
+	/**
+	 * Finds the penetration between two convex shapes.
+	 * @param shapeA the first shape
+	 * @param shapeB the second shape
+	 * @param bodyA the physics body attached to the first shape
+	 * @param bodyB the physics body attached to the second shape
+	 * @return a single contact with a normal pointing from A towards B or null if the shapes do not overlap
+	 */
+	static CollisionInterface penetration(ConvexShape shapeA, ConvexShape shapeB, PhysicsBody bodyA, PhysicsBody bodyB) {
+		Gjk gjk = new Gjk(shapeA, shapeB, bodyA, bodyB);
+		if (!gjk.intersect()) {
+			return null;
+		}
+		return gjk.expand();
+	}
+
+	private Vertex support(Vector3 d) {
+		Vector3 a = bodyA.toWorldSpace(shapeA.support(bodyA.getR().vectMultLeft(d)));
+		Vector3 b = bodyB.toWorldSpace(shapeB.support(bodyB.getR().vectMultLeft(d.inverse())));
+		return new Vertex(a, b);
+	}
+
+	private boolean intersect() {
+		dir = bodyA.toWorldSpace(shapeA.getCenter()).subtract(bodyB.toWorldSpace(shapeB.getCenter()));
+		if (dir.equals(Vector3.zero)) {
+			dir = Vector3.i;
+		}
+		simplex[size++] = support(dir);
+		dir = simplex[0].p.inverse();
+		for (int iter = 0; iter < MAX_GJK_ITERATIONS; iter++) {
+			if (dir.magSquared() == 0) {
+				return false; // origin is on the boundary of the simplex, shapes are only touching
+			}
+			Vertex w = support(dir);
+			if (w.p.dot(dir) <= 0) {
+				return false; // could not get past the origin, there is a separating plane
+			}
+			simplex[size++] = w;
+			if (doSimplex()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Reduces the simplex to the feature closest to the origin and updates the search direction.
+	 * @return true if the simplex encloses the origin
+	 */
+	private boolean doSimplex() {
+		switch (size) {
+			case 2:
+				line();
+				return false;
+			case 3:
+				triangle();
+				return false;
+			default:
+				return tetrahedron();
+		}
+	}
+
+	private void line() {
+		Vertex a = simplex[1];
+		Vertex b = simplex[0];
+		Vector3 ab = b.p.subtract(a.p);
+		Vector3 ao = a.p.inverse();
+		if (ab.dot(ao) > 0) {
+			dir = ab.cross(ao).cross(ab);
+			if (dir.magSquared() == 0) {
+				dir = ab.randomPerp(); // origin lies on the segment
+			}
+		} else {
+			set(a);
+			dir = ao;
+		}
+	}
+
+	private void triangle() {
+		Vertex a = simplex[2];
+		Vertex b = simplex[1];
+		Vertex c = simplex[0];
+		Vector3 ab = b.p.subtract(a.p);
+		Vector3 ac = c.p.subtract(a.p);
+		Vector3 ao = a.p.inverse();
+		Vector3 abc = ab.cross(ac);
+
+		if (abc.cross(ac).dot(ao) > 0) { // outside edge ac
+			if (ac.dot(ao) > 0) {
+				set(c, a);
+				dir = ac.cross(ao).cross(ac);
+			} else {
+				set(b, a);
+				line();
+			}
+		} else if (ab.cross(abc).dot(ao) > 0) { // outside edge ab
+			set(b, a);
+			line();
+		} else { // above or below the triangle
+			dir = abc.dot(ao) > 0 ? abc : abc.inverse();
+		}
+	}
+
+	private boolean tetrahedron() {
+		Vertex a = simplex[3];
+		Vertex b = simplex[2];
+		Vertex c = simplex[1];
+		Vertex d = simplex[0];
+		Vector3 ao = a.p.inverse();
+		// only the faces touching a need to be checked, the origin was beyond face bcd when a was found
+		if (faceOutward(a, b, c, d).dot(ao) > 0) {
+			set(c, b, a);
+			triangle();
+			return false;
+		}
+		if (faceOutward(a, c, d, b).dot(ao) > 0) {
+			set(d, c, a);
+			triangle();
+			return false;
+		}
+		if (faceOutward(a, d, b, c).dot(ao) > 0) {
+			set(b, d, a);
+			triangle();
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * The normal of triangle xyz pointing away from the vertex opposite.
+	 */
+	private static Vector3 faceOutward(Vertex x, Vertex y, Vertex z, Vertex opposite) {
+		Vector3 n = y.p.subtract(x.p).cross(z.p.subtract(x.p));
+		if (n.dot(opposite.p.subtract(x.p)) > 0) {
+			return n.inverse();
+		}
+		return n;
+	}
+
+	private void set(Vertex... verts) {
+		for (int i = 0; i < verts.length; i++) {
+			simplex[i] = verts[i];
+		}
+		size = verts.length;
+	}
+
+	/**
+	 * Expanding polytope algorithm. Starts from the tetrahedron GJK ended with.
+	 */
+	private CollisionInterface expand() {
+		List<Vertex> verts = new ArrayList<Vertex>();
+		for (int i = 0; i < 4; i++) {
+			verts.add(simplex[i]);
+		}
+		Vector3 inside = Vector3.zero;
+		for (Vertex v : verts) {
+			inside = inside.add(v.p.multScaler(0.25));
+		}
+		List<Face> faces = new ArrayList<Face>();
+		faces.add(new Face(verts, 0, 1, 2, inside));
+		faces.add(new Face(verts, 0, 3, 1, inside));
+		faces.add(new Face(verts, 0, 2, 3, inside));
+		faces.add(new Face(verts, 1, 3, 2, inside));
+
+		Face closest = null;
+		for (int iter = 0; iter < MAX_EPA_ITERATIONS; iter++) {
+			closest = faces.get(0);
+			for (Face f : faces) {
+				if (f.dist < closest.dist) {
+					closest = f;
+				}
+			}
+			if (closest.dist == Double.POSITIVE_INFINITY) {
+				return null; // every face is degenerate
+			}
+
+			Vertex w = support(closest.n);
+			if (w.p.dot(closest.n) - closest.dist < EPA_TOLERANCE) {
+				break; // the polytope cannot be expanded any further in this direction
+			}
+
+			// remove every face that can see the new point and keep the edges of the hole
+			verts.add(w);
+			int wIndex = verts.size() - 1;
+			List<int[]> edges = new ArrayList<int[]>();
+			for (int f = faces.size() - 1; f >= 0; f--) {
+				Face face = faces.get(f);
+				if (face.n.dot(w.p.subtract(verts.get(face.i).p)) > 0) {
+					addEdge(edges, face.i, face.j);
+					addEdge(edges, face.j, face.k);
+					addEdge(edges, face.k, face.i);
+					faces.remove(f);
+				}
+			}
+			for (int[] edge : edges) {
+				faces.add(new Face(verts, edge[0], edge[1], wIndex, inside));
+			}
+			if (faces.isEmpty()) {
+				return null;
+			}
+		}
+
+		// the contact is at the projection of the origin onto the closest face
+		Vertex a = verts.get(closest.i);
+		Vertex b = verts.get(closest.j);
+		Vertex c = verts.get(closest.k);
+		double[] bary = barycentric(closest.n.multScaler(closest.dist), a.p, b.p, c.p);
+		Vector3 onA = a.a.multScaler(bary[0]).add(b.a.multScaler(bary[1])).add(c.a.multScaler(bary[2]));
+		Vector3 onB = a.b.multScaler(bary[0]).add(b.b.multScaler(bary[1])).add(c.b.multScaler(bary[2]));
+		return new CollisionInterface(onA.add(onB).multScaler(0.5), closest.n);
+	}
+
+	/**
+	 * Adds an edge to the hole boundary. An edge shared by two removed faces is interior and is removed instead.
+	 */
+	private static void addEdge(List<int[]> edges, int from, int to) {
+		for (int i = 0; i < edges.size(); i++) {
+			int[] e = edges.get(i);
+			if (e[0] == to && e[1] == from) {
+				edges.remove(i);
+				return;
+			}
+		}
+		edges.add(new int[] {from, to});
+	}
+
+	/**
+	 * Barycentric coordinates of a point in the plane of triangle abc.
+	 * See Ericson, Real-Time Collision Detection 3.4.
+	 */
+	private static double[] barycentric(Vector3 p, Vector3 a, Vector3 b, Vector3 c) {
+		Vector3 v0 = b.subtract(a);
+		Vector3 v1 = c.subtract(a);
+		Vector3 v2 = p.subtract(a);
+		double d00 = v0.dot(v0);
+		double d01 = v0.dot(v1);
+		double d11 = v1.dot(v1);
+		double d20 = v2.dot(v0);
+		double d21 = v2.dot(v1);
+		double denom = d00 * d11 - d01 * d01;
+		if (denom == 0) {
+			return new double[] {1, 0, 0};
+		}
+		double v = (d11 * d20 - d01 * d21) / denom;
+		double w = (d00 * d21 - d01 * d20) / denom;
+		return new double[] {1 - v - w, v, w};
+	}
+
+}
@@ -0,0 +1,103 @@
+package com.jacobschneider.engine.physics;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.media.opengl.GLAutoDrawable;
+
+import com.jacobschneider.engine.framework.ConvexShape;
+import com.jacobschneider.engine.framework.Drawable;
+import com.jacobschneider.engine.framework.PhysicsBody;
+import com.jacobschneider.engine.framework.Primitive;
+import com.jacobschneider.engine.framework.Segment;
+import com.jacobschneider.engine.framework.Shape;
+import com.jacobschneider.engine.math.Vector3;
+
+/**
+ * The convex hull of the vertices of a {@link BasicShape}.
+ * Collisions with another {@link ConvexShape} are found with GJK and EPA which only depend on
+ * the support mapping of each shape, not on how finely the shapes are tessellated.
+ * Collisions with any other shape are delegated to the original {@link BasicShape}.
+ * 
+ * @author Jacob
+ *
+ */
+public class HullShape implements ConvexShape, Drawable {
+	private final BasicShape shape; // the shape the hull was created from, used for drawing and non convex collisions
+	private final Vector3[] vertices; // unique vertices in body space
+	private final Vector3 center;
+	
+	/**
+	 * Creates the convex hull of a shape. The vertices of the hull are the end points of every
+	 * segment of every primitive in the shape. Shapes that are not convex will collide as if they were.
+	 * @param shape the shape to wrap
+	 */
+	public HullShape(BasicShape shape) {
+		this.shape = shape;
+		Set<Vector3> verts = new LinkedHashSet<Vector3>();
+		for (Primitive p : shape.getPrimitives()) {
+			for (Segment s : p.getSegments()) {
+				verts.add(s.a);
+				verts.add(s.b);
+			}
+		}
+		if (verts.isEmpty()) {
+			throw new IllegalArgumentException("A hull requires at least one vertex");
+		}
+		this.vertices = verts.toArray(new Vector3[verts.size()]);
+		
+		Vector3 sum = Vector3.zero;
+		for (Vector3 v : vertices) {
+			sum = sum.add(v);
+		}
+		this.center = sum.multScaler(1.0 / vertices.length);
+	}
+	
+	@Override
+	public Vector3 support(Vector3 dir) {
+		Vector3 best = vertices[0];
+		double bestDot = best.dot(dir);
+		for (int i = 1; i < vertices.length; i++) {
+			double dot = vertices[i].dot(dir);
+			if (dot > bestDot) {
+				bestDot = dot;
+				best = vertices[i];
+			}
+		}
+		return best;
+	}
+	
+	@Override
+	public Vector3 getCenter() {
+		return center;
+	}
+
+	@Override
+	public List<CollisionInterface> collisionDetect(Shape other, PhysicsBody thisBody, PhysicsBody otherBody) {
+		return CollisionAlgorithms.collisionDetect(this, other, thisBody, otherBody);
+	}
+	
+	/**
+	 * @return the shape the hull was created from
+	 */
+	BasicShape getBasicShape() {
+		return shape;
+	}
+
+	@Override
+	public Primitive[] getPrimitives() {
+		return shape.getPrimitives();
+	}
+
+	@Override
+	public Segment[] getSegments() {
+		return shape.getSegments();
+	}
+
+	@Override
+	public void draw(GLAutoDrawable drawable) {
+		shape.draw(drawable);
+	}
+
+}
@@ -0,0 +1,230 @@
+package com.jacobschneider.engine.physics;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2;
+import javax.media.opengl.GL2ES2;
+import javax.media.opengl.GL3bc;
+import javax.media.opengl.GLAutoDrawable;
+import javax.media.opengl.GLContext;
+
+import com.jogamp.common.nio.Buffers;
+
+/**
+ * Draws every body whose shape has the same {@link MeshBuffer} with one instanced draw call.
+ * The model matrix of every body is copied from its physics state into one stream buffer each frame, and a small
+ * shader takes each instance's matrix from that buffer. The camera stays in the projection matrix, as it is for
+ * {@link Body#draw(GLAutoDrawable)}.
+ * Needs a compatibility context of OpenGL 3.3 or later for per-instance attributes. Universes fall back to drawing
+ * each body from its {@link MeshBuffer} when {@link #draw(GLAutoDrawable, Iterable)} returns false.
+ *
+ * @author Jacob
+ *
+ */
+final class InstancedRenderer {
+	private static final int POSITION = 0, COLOR = 1, MODEL = 2; // attribute locations, the model matrix takes four
+	private static final int FLOATS_PER_INSTANCE = 16;
+	private static final int INSTANCE_STRIDE = FLOATS_PER_INSTANCE * Buffers.SIZEOF_FLOAT;
+
+	private static final String VERTEX_SHADER =
+			"#version 120\n" +
+			"attribute vec3 position;\n" +
+			"attribute vec4 color;\n" +
+			"attribute mat4 model;\n" +
+			"varying vec4 vertexColor;\n" +
+			"void main() {\n" +
+			"	vertexColor = color;\n" +
+			"	gl_Position = gl_ProjectionMatrix * (model * vec4(position, 1.0));\n" +
+			"}\n";
+	private static final String FRAGMENT_SHADER =
+			"#version 120\n" +
+			"varying vec4 vertexColor;\n" +
+			"void main() {\n" +
+			"	gl_FragColor = vertexColor;\n" +
+			"}\n";
+
+	private GLContext context = null; // the context the program and instance buffer belong to
+	private int program = 0; // zero if the shaders could not be built
+	private int instanceBuffer;
+
+	private final Map<MeshBuffer, Batch> batches = new IdentityHashMap<MeshBuffer, Batch>(); // kept between frames
+	private final List<Body> unbuffered = new ArrayList<Body>(); // bodies whose shapes draw themselves
+	private float[] instances = new float[FLOATS_PER_INSTANCE * 64];
+	private FloatBuffer instanceData = Buffers.newDirectFloatBuffer(instances.length);
+
+	/**
+	 * The bodies of one frame that share a mesh.
+	 */
+	private static class Batch {
+		int count = 0;
+		int offset; // first instance of this batch in the stream buffer
+	}
+
+	/**
+	 * Draws bodies grouped by mesh.
+	 * @param bodies the bodies to draw, null entries are skipped
+	 * @return false, having drawn nothing, if the context cannot draw instances
+	 */
+	boolean draw(GLAutoDrawable drawable, Iterable<Body> bodies) {
+		GL2 gl2 = drawable.getGL().getGL2();
+		if (!gl2.isGL3bc() || !MeshBuffer.isSupported(gl2)) {
+			return false;
+		}
+		GL3bc gl = gl2.getGL3bc();
+		if (context != gl.getContext()) {
+			setUp(gl);
+		}
+		if (program == 0) {
+			return false;
+		}
+
+		// group the bodies, batches that were empty for a whole frame are dropped so their meshes can be released
+		for (Iterator<Batch> it = batches.values().iterator(); it.hasNext();) {
+			Batch batch = it.next();
+			if (batch.count == 0) {
+				it.remove();
+			}
+			batch.count = 0;
+		}
+		unbuffered.clear();
+		int total = 0;
+		for (Body b : bodies) {
+			if (b == null) {
+				continue;
+			}
+			MeshBuffer mesh = MeshBuffer.of(b.getShape());
+			if (mesh == null) {
+				unbuffered.add(b);
+				continue;
+			}
+			Batch batch = batches.get(mesh);
+			if (batch == null) {
+				batch = new Batch();
+				batches.put(mesh, batch);
+			}
+			batch.count++;
+			total++;
+		}
+
+		// copy every model matrix into place, batch by batch
+		if (instances.length < total * FLOATS_PER_INSTANCE) {
+			instances = new float[Math.max(total, instances.length / FLOATS_PER_INSTANCE * 2) * FLOATS_PER_INSTANCE];
+			instanceData = Buffers.newDirectFloatBuffer(instances.length);
+		}
+		int offset = 0;
+		for (Batch batch : batches.values()) {
+			batch.offset = offset;
+			offset += batch.count;
+			batch.count = 0; // counts back up as the matrices are copied
+		}
+		for (Body b : bodies) {
+			if (b == null) {
+				continue;
+			}
+			MeshBuffer mesh = MeshBuffer.of(b.getShape());
+			if (mesh == null) {
+				continue;
+			}
+			Batch batch = batches.get(mesh);
+			double[] m = b.getModelMatrix();
+			int start = (batch.offset + batch.count++) * FLOATS_PER_INSTANCE;
+			for (int i = 0; i < FLOATS_PER_INSTANCE; i++) {
+				instances[start + i] = (float) m[i];
+			}
+		}
+		instanceData.clear();
+		instanceData.put(instances, 0, total * FLOATS_PER_INSTANCE);
+		instanceData.flip();
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, instanceBuffer);
+		gl.glBufferData(GL.GL_ARRAY_BUFFER, total * INSTANCE_STRIDE, instanceData, GL2ES2.GL_STREAM_DRAW); // replaces last frame's data
+
+		gl.glUseProgram(program);
+		gl.glEnableVertexAttribArray(POSITION);
+		gl.glEnableVertexAttribArray(COLOR);
+		for (int c = 0; c < 4; c++) {
+			gl.glEnableVertexAttribArray(MODEL + c);
+			gl.glVertexAttribDivisor(MODEL + c, 1);
+		}
+		for (Map.Entry<MeshBuffer, Batch> e : batches.entrySet()) {
+			Batch batch = e.getValue();
+			if (batch.count == 0) {
+				continue;
+			}
+			e.getKey().bindAttributes(gl, POSITION, COLOR);
+			gl.glBindBuffer(GL.GL_ARRAY_BUFFER, instanceBuffer);
+			for (int c = 0; c < 4; c++) { // one column of the model matrix each
+				gl.glVertexAttribPointer(MODEL + c, 4, GL.GL_FLOAT, false, INSTANCE_STRIDE,
+						(long) batch.offset * INSTANCE_STRIDE + c * 4 * Buffers.SIZEOF_FLOAT);
+			}
+			e.getKey().drawInstanced(gl, batch.count);
+		}
+		for (int c = 0; c < 4; c++) {
+			gl.glVertexAttribDivisor(MODEL + c, 0);
+			gl.glDisableVertexAttribArray(MODEL + c);
+		}
+		gl.glDisableVertexAttribArray(COLOR);
+		gl.glDisableVertexAttribArray(POSITION);
+		gl.glUseProgram(0);
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+
+		for (int i = 0; i < unbuffered.size(); i++) {
+			unbuffered.get(i).draw(drawable, false);
+		}
+		return true;
+	}
+
+	/**
+	 * Builds the shader program and the instance buffer for a new context.
+	 */
+	private void setUp(GL3bc gl) {
+		context = gl.getContext();
+		program = 0;
+		int[] id = new int[1];
+		gl.glGenBuffers(1, id, 0);
+		instanceBuffer = id[0];
+		int vertex = compile(gl, GL2ES2.GL_VERTEX_SHADER, VERTEX_SHADER);
+		int fragment = compile(gl, GL2ES2.GL_FRAGMENT_SHADER, FRAGMENT_SHADER);
+		if (vertex == 0 || fragment == 0) {
+			return;
+		}
+		int p = gl.glCreateProgram();
+		gl.glAttachShader(p, vertex);
+		gl.glAttachShader(p, fragment);
+		gl.glBindAttribLocation(p, POSITION, "position");
+		gl.glBindAttribLocation(p, COLOR, "color");
+		gl.glBindAttribLocation(p, MODEL, "model");
+		gl.glLinkProgram(p);
+		gl.glDeleteShader(vertex);
+		gl.glDeleteShader(fragment);
+		int[] status = new int[1];
+		gl.glGetProgramiv(p, GL2ES2.GL_LINK_STATUS, status, 0);
+		if (status[0] == GL.GL_FALSE) {
+			gl.glDeleteProgram(p);
+			return;
+		}
+		program = p;
+	}
+
+	/**
+	 * @return the shader, or zero if it did not compile
+	 */
+	private static int compile(GL2ES2 gl, int type, String source) {
+		int shader = gl.glCreateShader(type);
+		gl.glShaderSource(shader, 1, new String[] {source}, new int[] {source.length()}, 0);
+		gl.glCompileShader(shader);
+		int[] status = new int[1];
+		gl.glGetShaderiv(shader, GL2ES2.GL_COMPILE_STATUS, status, 0);
+		if (status[0] == GL.GL_FALSE) {
+			gl.glDeleteShader(shader);
+			return 0;
+		}
+		return shader;
+	}
+
+}
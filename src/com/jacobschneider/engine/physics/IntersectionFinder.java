@@ -0,0 +1,167 @@
+package com.jacobschneider.engine.physics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import com.jacobschneider.engine.framework.Pair;
+import com.jacobschneider.engine.math.Vector3;
+
+/**
+ * Finds every pair of bodies that are intersecting. Used to check that a universe does not start with
+ * bodies inside of each other.
+ * Moving bodies are swept along the x axis of their enclosing boxes so only bodies whose boxes overlap are
+ * passed to {@link Body#collisionDetect(Body)}, and fixed bodies are found through a {@link StaticBodyTree}.
+ * Pairs of fixed bodies are never tested. Large universes are split across all available processors.
+ *
+ * @author Jacob
+ *
+ */
+final class IntersectionFinder {
+	private static final int MIN_BODIES_PER_TASK = 64; // below this the check is not worth spreading across threads
+
+	private IntersectionFinder() {}
+
+	/**
+	 * Finds every intersecting pair.
+	 * @param dynamicBodies the bodies that are not fixed
+	 * @param staticBodies the bodies that are fixed
+	 * @return every intersecting pair, the moving body of a pair is always first
+	 */
+	static List<Pair<Body, Body>> find(List<Body> dynamicBodies, final StaticBodyTree staticBodies) {
+		final Body[] sorted = new Body[dynamicBodies.size()];
+		final double[][] mins = new double[sorted.length][];
+		final double[][] maxs = new double[sorted.length][];
+		sortByMinX(dynamicBodies, sorted, mins, maxs);
+
+		int processors = Runtime.getRuntime().availableProcessors();
+		final int numTasks = Math.max(1, Math.min(processors, sorted.length / MIN_BODIES_PER_TASK));
+		if (numTasks == 1) {
+			return findFrom(0, 1, sorted, mins, maxs, staticBodies);
+		}
+
+		ExecutorService exec = Executors.newFixedThreadPool(numTasks, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "IntersectionFinder");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		try {
+			List<Future<List<Pair<Body, Body>>>> futures = new ArrayList<Future<List<Pair<Body, Body>>>>();
+			for (int i = 0; i < numTasks; i++) {
+				final int first = i;
+				futures.add(exec.submit(new Callable<List<Pair<Body, Body>>>() {
+					@Override
+					public List<Pair<Body, Body>> call() {
+						// interleaved so that crowded regions of the sweep are shared between tasks
+						return findFrom(first, numTasks, sorted, mins, maxs, staticBodies);
+					}
+				}));
+			}
+			List<Pair<Body, Body>> pairs = new ArrayList<Pair<Body, Body>>();
+			for (Future<List<Pair<Body, Body>>> f : futures) {
+				pairs.addAll(f.get());
+			}
+			return pairs;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while checking for intersecting bodies", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Failed to check for intersecting bodies", e.getCause());
+		} finally {
+			exec.shutdown();
+		}
+	}
+
+	/**
+	 * Describes a list of intersecting pairs using the index of each body in a list.
+	 */
+	static String describe(List<Pair<Body, Body>> pairs, List<Body> bodies) {
+		Map<Body, Integer> indices = new IdentityHashMap<Body, Integer>();
+		for (int i = 0; i < bodies.size(); i++) {
+			indices.put(bodies.get(i), i);
+		}
+		StringBuilder sb = new StringBuilder();
+		sb.append(pairs.size()).append(pairs.size() == 1 ? " pair of bodies is" : " pairs of bodies are").append(" intersecting:");
+		for (Pair<Body, Body> p : pairs) {
+			sb.append(" (").append(indices.get(p.a)).append(", ").append(indices.get(p.b)).append(")");
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Orders the bodies by the low x edge of their boxes. Bodies with unbounded volumes get infinite boxes and go first.
+	 */
+	private static void sortByMinX(List<Body> bodies, Body[] sorted, double[][] mins, double[][] maxs) {
+		final Map<Body, double[][]> boxes = new IdentityHashMap<Body, double[][]>();
+		for (Body b : bodies) {
+			Pair<Vector3, Vector3> box = b.getEnclosingBox();
+			if (box == null) {
+				double inf = Double.POSITIVE_INFINITY;
+				boxes.put(b, new double[][] {{-inf, -inf, -inf}, {inf, inf, inf}});
+			} else {
+				boxes.put(b, new double[][] {box.a.toArray(), box.b.toArray()});
+			}
+		}
+		List<Body> order = new ArrayList<Body>(bodies);
+		Collections.sort(order, new Comparator<Body>() {
+			@Override
+			public int compare(Body b1, Body b2) {
+				return Double.compare(boxes.get(b1)[0][0], boxes.get(b2)[0][0]);
+			}
+		});
+		for (int i = 0; i < sorted.length; i++) {
+			sorted[i] = order.get(i);
+			mins[i] = boxes.get(sorted[i])[0];
+			maxs[i] = boxes.get(sorted[i])[1];
+		}
+	}
+
+	/**
+	 * Checks the moving bodies first, first + stride, first + 2 * stride ... against every body after them in
+	 * the sweep and against the nearby fixed bodies.
+	 */
+	private static List<Pair<Body, Body>> findFrom(int first, int stride, Body[] sorted, double[][] mins, double[][] maxs,
+												   StaticBodyTree staticBodies) {
+		List<Pair<Body, Body>> pairs = new ArrayList<Pair<Body, Body>>();
+		List<Body> nearbyStatics = new ArrayList<Body>();
+		StaticBodyTree.QueryStack staticQuery = new StaticBodyTree.QueryStack();
+		ContactArena arena = new ContactArena();
+		for (int i = first; i < sorted.length; i += stride) {
+			Body b1 = sorted[i];
+			for (int j = i + 1; j < sorted.length && mins[j][0] <= maxs[i][0]; j++) {
+				if (mins[j][1] > maxs[i][1] || mins[i][1] > maxs[j][1] || mins[j][2] > maxs[i][2] || mins[i][2] > maxs[j][2]) {
+					continue;
+				}
+				if (intersecting(b1, sorted[j], arena)) {
+					pairs.add(Pair.create(b1, sorted[j]));
+				}
+			}
+			nearbyStatics.clear();
+			staticBodies.query(b1.getEnclosingBox(), nearbyStatics, staticQuery);
+			for (Body b2 : nearbyStatics) {
+				if (intersecting(b1, b2, arena)) {
+					pairs.add(Pair.create(b1, b2));
+				}
+			}
+		}
+		return pairs;
+	}
+
+	private static boolean intersecting(Body b1, Body b2, ContactArena arena) {
+		arena.clear();
+		return b1.collisionDetect(b2, arena) != 0;
+	}
+
+}
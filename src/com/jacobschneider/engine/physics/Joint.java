@@ -0,0 +1,205 @@
+package com.jacobschneider.engine.physics;
+
+import com.jacobschneider.engine.framework.PhysicsBody;
+import com.jacobschneider.engine.math.Matrix3;
+import com.jacobschneider.engine.math.Quaternion;
+import com.jacobschneider.engine.math.Vector3;
+
+/**
+ * A link between two bodies that takes away some of their freedom to move relative to each other.
+ * Joints are made with the static factory methods in {@link Joints} and added with {@link BasicUniverse#addJoint(Joint)}.
+ * <p>
+ * A joint is made of rows. Each row stops the bodies moving apart along one direction or rotating apart around one axis,
+ * and is solved as a velocity constraint in the same loop as the contacts of the bodies it links. Any error in position
+ * is pushed out over the next few steps. The impulse of each row is kept and applied again at the start of the next
+ * step, so a chain of bodies holding up a load starts each step close to its answer.
+ *
+ * @author Jacob
+ *
+ */
+public final class Joint {
+	static enum Kind {BALL_SOCKET, HINGE, SLIDER, FIXED};
+
+	private static final double BAUMGARTE = 0.2; // fraction of the position error removed each step
+	private static final double TOLERANCE = 0.001; // largest velocity error a row can have and be left alone
+
+	private final Kind kind;
+	private final Body bodyA, bodyB;
+	private final PhysicsBody a, b;
+	private final Vector3 anchorA, anchorB; // the anchor in the space of each body
+	private final Vector3 axisA, axisB; // the axis in the space of each body, null for ball and socket joints
+	private final Vector3 perpA1, perpA2; // two directions perpendicular to the axis in the space of body A
+	private final Quaternion relative; // the starting orientation of body B relative to body A
+
+	// rows, refilled by prepare each step except for the impulses
+	private int numLinear, numAngular;
+	private final Vector3[] linearDirs = new Vector3[3];
+	private final Vector3[] angularDirs = new Vector3[3];
+	private final double[] linearMass = new double[3], angularMass = new double[3]; // zero for a row neither body can move along
+	private final double[] linearBias = new double[3], angularBias = new double[3];
+	private final double[] linearImpulse = new double[3], angularImpulse = new double[3]; // kept between steps
+	private Vector3 rA, rB; // world space vectors from each center of mass to its anchor
+
+	/**
+	 * @param anchor the world space point the bodies are linked at
+	 * @param axis the world space axis of a hinge or slider, ignored by the other kinds
+	 */
+	Joint(Kind kind, Body bodyA, Body bodyB, Vector3 anchor, Vector3 axis) {
+		if (bodyA == null || bodyB == null) {
+			throw new IllegalArgumentException("A joint needs two bodies");
+		}
+		if (bodyA == bodyB) {
+			throw new IllegalArgumentException("A body cannot be joined to itself");
+		}
+		if (bodyA.isFixed() && bodyB.isFixed()) {
+			throw new IllegalArgumentException("A joint needs at least one body that is not fixed");
+		}
+		if (anchor == null) {
+			throw new IllegalArgumentException("The anchor of a joint cannot be null");
+		}
+		this.kind = kind;
+		this.bodyA = bodyA;
+		this.bodyB = bodyB;
+		this.a = bodyA.getPhysicsBody();
+		this.b = bodyB.getPhysicsBody();
+		this.anchorA = a.toBodySpace(anchor);
+		this.anchorB = b.toBodySpace(anchor);
+		this.relative = a.getQ().inverse().multQuat(b.getQ());
+		if (kind == Kind.BALL_SOCKET) {
+			axisA = axisB = perpA1 = perpA2 = null;
+			return;
+		}
+		if (axis == null || axis.mag() == 0) {
+			throw new IllegalArgumentException("The axis of a joint cannot be zero");
+		}
+		axis = axis.normalize();
+		Vector3 perp1 = Math.abs(axis.x) < 0.6 ? axis.cross(Vector3.i).normalize() : axis.cross(Vector3.j).normalize();
+		Vector3 perp2 = axis.cross(perp1);
+		Matrix3 toA = a.getR().transpose();
+		this.axisA = toA.multVectRight(axis);
+		this.axisB = b.getR().transpose().multVectRight(axis);
+		this.perpA1 = toA.multVectRight(perp1);
+		this.perpA2 = toA.multVectRight(perp2);
+	}
+
+	Body getBodyA() {
+		return bodyA;
+	}
+
+	Body getBodyB() {
+		return bodyB;
+	}
+
+	/**
+	 * Finds the direction, effective mass and position error of each row for the current positions of the bodies,
+	 * then applies the impulses found on the last step.
+	 * @param deltaTime the length of this step, the position error is removed over a few steps of this length
+	 */
+	void prepare(double deltaTime) {
+		Vector3 pA = a.toWorldSpace(anchorA);
+		Vector3 pB = b.toWorldSpace(anchorB);
+		rA = pA.subtract(a.getX());
+		rB = pB.subtract(b.getX());
+		Vector3 separation = pA.subtract(pB);
+		double biasFactor = deltaTime > 0 ? BAUMGARTE / deltaTime : 0;
+
+		numLinear = 0;
+		if (kind == Kind.SLIDER) { // free to move along the axis only
+			Matrix3 rotA = a.getR();
+			addLinear(rotA.multVectRight(perpA1), separation, biasFactor);
+			addLinear(rotA.multVectRight(perpA2), separation, biasFactor);
+		} else {
+			addLinear(Vector3.i, separation, biasFactor);
+			addLinear(Vector3.j, separation, biasFactor);
+			addLinear(Vector3.k, separation, biasFactor);
+		}
+
+		numAngular = 0;
+		if (kind == Kind.HINGE) { // the axes of the two bodies are held together, leaving rotation around them free
+			Matrix3 rotA = a.getR();
+			Vector3 misalignment = b.getR().multVectRight(axisB).cross(rotA.multVectRight(axisA));
+			addAngular(rotA.multVectRight(perpA1), misalignment, biasFactor);
+			addAngular(rotA.multVectRight(perpA2), misalignment, biasFactor);
+		} else if (kind == Kind.SLIDER || kind == Kind.FIXED) { // the starting orientation of B relative to A is kept
+			Quaternion error = a.getQ().multQuat(relative).multQuat(b.getQ().inverse());
+			Vector3 rotation = error.v.multScaler(error.s < 0 ? -2 : 2); // small angle rotation that takes B to where it should be
+			addAngular(Vector3.i, rotation, biasFactor);
+			addAngular(Vector3.j, rotation, biasFactor);
+			addAngular(Vector3.k, rotation, biasFactor);
+		}
+
+		for (int i = 0; i < numLinear; i++) { // warm start
+			if (linearImpulse[i] != 0) {
+				applyLinear(linearDirs[i].multScaler(linearImpulse[i]));
+			}
+		}
+		for (int i = 0; i < numAngular; i++) {
+			if (angularImpulse[i] != 0) {
+				applyAngular(angularDirs[i].multScaler(angularImpulse[i]));
+			}
+		}
+	}
+
+	private void addLinear(Vector3 dir, Vector3 separation, double biasFactor) {
+		Vector3 ca = rA.cross(dir);
+		Vector3 cb = rB.cross(dir);
+		double k = a.getInvMass() + b.getInvMass() + ca.dot(a.getInvI().multVectRight(ca)) + cb.dot(b.getInvI().multVectRight(cb));
+		linearDirs[numLinear] = dir;
+		linearMass[numLinear] = k > 0 ? 1 / k : 0;
+		linearBias[numLinear] = biasFactor * separation.dot(dir);
+		numLinear++;
+	}
+
+	private void addAngular(Vector3 dir, Vector3 rotation, double biasFactor) {
+		double k = dir.dot(a.getInvI().multVectRight(dir)) + dir.dot(b.getInvI().multVectRight(dir));
+		angularDirs[numAngular] = dir;
+		angularMass[numAngular] = k > 0 ? 1 / k : 0;
+		angularBias[numAngular] = biasFactor * rotation.dot(dir);
+		numAngular++;
+	}
+
+	/**
+	 * Applies an impulse to each row that is not yet satisfied, one row at a time.
+	 * @return true if any row was not satisfied
+	 */
+	boolean solve() {
+		boolean unsettled = false;
+		for (int i = 0; i < numLinear; i++) {
+			if (linearMass[i] == 0) {
+				continue;
+			}
+			Vector3 vRel = a.getSurfaceVelocity(rA).subtract(b.getSurfaceVelocity(rB));
+			double error = vRel.dot(linearDirs[i]) + linearBias[i];
+			if (Math.abs(error) > TOLERANCE) {
+				double lambda = -linearMass[i] * error;
+				linearImpulse[i] += lambda;
+				applyLinear(linearDirs[i].multScaler(lambda));
+				unsettled = true;
+			}
+		}
+		for (int i = 0; i < numAngular; i++) {
+			if (angularMass[i] == 0) {
+				continue;
+			}
+			double error = a.getOmega().subtract(b.getOmega()).dot(angularDirs[i]) + angularBias[i];
+			if (Math.abs(error) > TOLERANCE) {
+				double lambda = -angularMass[i] * error;
+				angularImpulse[i] += lambda;
+				applyAngular(angularDirs[i].multScaler(lambda));
+				unsettled = true;
+			}
+		}
+		return unsettled;
+	}
+
+	private void applyLinear(Vector3 impulse) {
+		a.enactImpulse(impulse, rA);
+		b.enactImpulse(impulse.inverse(), rB);
+	}
+
+	private void applyAngular(Vector3 impulse) {
+		a.enactAngularImpulse(impulse);
+		b.enactAngularImpulse(impulse.inverse());
+	}
+
+}
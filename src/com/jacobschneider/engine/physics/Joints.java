@@ -0,0 +1,61 @@
+package com.jacobschneider.engine.physics;
+
+import com.jacobschneider.engine.math.Vector3;
+import com.jacobschneider.engine.physics.Joint.Kind;
+
+/**
+ * Numerous static factory methods for creating {@link Joint} objects.
+ * Every joint holds the bodies in the positions they have when it is created, so create joints after placing the bodies.
+ * Either body may be fixed, which pins the other body to the world.
+ *
+ * @author Jacob
+ *
+ */
+public final class Joints {
+	private Joints() {}
+
+	/**
+	 * A joint that holds a point on each body together and lets the bodies rotate freely around it.
+	 * @param a the first body
+	 * @param b the second body
+	 * @param anchor the world space point the bodies are held together at
+	 * @return the joint
+	 */
+	public static Joint ballSocket(Body a, Body b, Vector3 anchor) {
+		return new Joint(Kind.BALL_SOCKET, a, b, anchor, null);
+	}
+
+	/**
+	 * A joint that holds a point on each body together and only lets the bodies rotate relative to each other around one axis.
+	 * @param a the first body
+	 * @param b the second body
+	 * @param anchor the world space point the bodies are held together at
+	 * @param axis the world space axis the bodies can rotate around, it turns with the bodies
+	 * @return the joint
+	 */
+	public static Joint hinge(Body a, Body b, Vector3 anchor, Vector3 axis) {
+		return new Joint(Kind.HINGE, a, b, anchor, axis);
+	}
+
+	/**
+	 * A joint that only lets the bodies move relative to each other along one axis. The bodies cannot rotate relative to each other.
+	 * @param a the first body
+	 * @param b the second body
+	 * @param axis the world space axis the bodies can slide along, it turns with body a
+	 * @return the joint
+	 */
+	public static Joint slider(Body a, Body b, Vector3 axis) {
+		return new Joint(Kind.SLIDER, a, b, b == null ? null : b.getX(), axis);
+	}
+
+	/**
+	 * A joint that stops all relative motion between two bodies, so they move as though they were one body.
+	 * @param a the first body
+	 * @param b the second body
+	 * @return the joint
+	 */
+	public static Joint fixed(Body a, Body b) {
+		return new Joint(Kind.FIXED, a, b, b == null ? null : b.getX(), Vector3.k);
+	}
+
+}
@@ -0,0 +1,267 @@
+package com.jacobschneider.engine.physics;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2;
+import javax.media.opengl.GL2ES2;
+import javax.media.opengl.GL2ES3;
+import javax.media.opengl.GLContext;
+import javax.media.opengl.fixedfunc.GLPointerFunc;
+
+import com.jacobschneider.engine.framework.Drawable;
+import com.jacobschneider.engine.framework.Primitive;
+import com.jacobschneider.engine.framework.Segment;
+import com.jacobschneider.engine.framework.Shape;
+import com.jacobschneider.engine.math.Vector3;
+import com.jacobschneider.engine.math.geometry.Primitives.Circle;
+import com.jacobschneider.engine.math.geometry.Primitives.OpenCylinder;
+import com.jacobschneider.engine.math.geometry.Primitives.Sphere;
+import com.jacobschneider.engine.math.geometry.Primitives.Triangle;
+import com.jogamp.common.nio.Buffers;
+
+/**
+ * The geometry of a {@link BasicShape} in a vertex buffer object, so a body is drawn with a couple of GL calls
+ * instead of a glBegin/glEnd block per primitive. The vertices are built once, with the same colors the primitives
+ * draw themselves with, and uploaded the first time they are drawn in a GL context.
+ * Only the primitives in {@link com.jacobschneider.engine.math.geometry.Primitives} can be buffered.
+ * Shapes with exactly the same vertices share one buffer, so bodies made by the same factory call can be
+ * drawn together by an {@link InstancedRenderer}.
+ *
+ * @author Jacob
+ *
+ */
+final class MeshBuffer {
+	private static final int FLOATS_PER_VERTEX = 7; // x, y, z, red, green, blue, alpha
+	private static final int STRIDE = FLOATS_PER_VERTEX * Buffers.SIZEOF_FLOAT;
+	private static final float[] RED = {1, 0, 0, 0.5f};
+	private static final float[] GREEN = {0, 1, 0, 0.5f};
+	private static final float[] BLUE = {0, 0, 1, 0.5f};
+	private static final Map<MeshBuffer, WeakReference<MeshBuffer>> shared = new WeakHashMap<MeshBuffer, WeakReference<MeshBuffer>>(); // dropped once no shape uses them
+
+	private final float[] vertices; // every triangle vertex followed by every line vertex
+	private final int numTriangleVertices;
+	private final int numLineVertices;
+	private GLContext context = null; // the context the vertices were uploaded to
+	private int bufferId;
+
+	private MeshBuffer(float[] vertices, int numTriangleVertices, int numLineVertices) {
+		this.vertices = vertices;
+		this.numTriangleVertices = numTriangleVertices;
+		this.numLineVertices = numLineVertices;
+	}
+
+	/**
+	 * @return the buffer of a shape, or null if the shape cannot be buffered and has to draw itself
+	 */
+	static MeshBuffer of(Shape shape) {
+		if (shape instanceof HullShape) {
+			shape = ((HullShape) shape).getBasicShape();
+		}
+		return shape instanceof BasicShape ? ((BasicShape) shape).getMeshBuffer() : null;
+	}
+
+	/**
+	 * Builds the vertices of a set of primitives. Triangles and circles are filled, cylinders and spheres are drawn
+	 * as lines along their segments. Primitives that are not {@link Drawable} are skipped like they are when drawn.
+	 * @return the buffer, or null if a drawable primitive is not one this class knows how to buffer
+	 */
+	static MeshBuffer bake(Primitive[] primitives) {
+		int numTriangleVertices = 0;
+		int numLineVertices = 0;
+		for (Primitive p : primitives) {
+			if (p instanceof Triangle) {
+				numTriangleVertices += 3;
+			} else if (p instanceof Circle) {
+				numTriangleVertices += 3 * p.getSegments().size();
+			} else if (p instanceof OpenCylinder || p instanceof Sphere) {
+				numLineVertices += 2 * p.getSegments().size();
+			} else if (p instanceof Drawable) {
+				return null;
+			}
+		}
+		float[] vertices = new float[(numTriangleVertices + numLineVertices) * FLOATS_PER_VERTEX];
+		int tri = 0;
+		int line = numTriangleVertices * FLOATS_PER_VERTEX;
+		for (Primitive p : primitives) {
+			if (p instanceof Triangle) {
+				Triangle t = (Triangle) p;
+				tri = put(vertices, tri, t.a, RED);
+				tri = put(vertices, tri, t.b, GREEN);
+				tri = put(vertices, tri, t.c, BLUE);
+			} else if (p instanceof Circle) { // the triangle fan of the circle as separate triangles
+				Vector3 center = ((Circle) p).getCenter();
+				List<Segment> segs = p.getSegments();
+				for (int i = 0; i < segs.size(); i++) {
+					tri = put(vertices, tri, center, RED);
+					tri = put(vertices, tri, segs.get(i).b, GREEN);
+					tri = put(vertices, tri, segs.get((i + 1) % segs.size()).b, GREEN);
+				}
+			} else if (p instanceof OpenCylinder || p instanceof Sphere) {
+				for (Segment s : p.getSegments()) {
+					line = put(vertices, line, s.a, RED);
+					line = put(vertices, line, s.b, GREEN);
+				}
+			}
+		}
+		sortRuns(vertices, 0, numTriangleVertices / 3, 3 * FLOATS_PER_VERTEX);
+		sortRuns(vertices, numTriangleVertices * FLOATS_PER_VERTEX, numLineVertices / 2, 2 * FLOATS_PER_VERTEX);
+		return share(new MeshBuffer(vertices, numTriangleVertices, numLineVertices));
+	}
+	
+	/**
+	 * Sorts the triangles or lines of a buffer, so shapes built from the same primitives in a different order
+	 * end up with the same vertices and can share a buffer.
+	 * @param start the index of the first float of the first run
+	 * @param count the number of runs
+	 * @param length the number of floats in each run
+	 */
+	private static void sortRuns(final float[] vertices, final int start, int count, final int length) {
+		Integer[] order = new Integer[count];
+		for (int i = 0; i < count; i++) {
+			order[i] = start + i * length;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				for (int i = 0; i < length; i++) {
+					int c = Float.compare(vertices[a + i], vertices[b + i]);
+					if (c != 0) {
+						return c;
+					}
+				}
+				return 0;
+			}
+		});
+		float[] sorted = new float[count * length];
+		for (int i = 0; i < count; i++) {
+			System.arraycopy(vertices, order[i], sorted, i * length, length);
+		}
+		System.arraycopy(sorted, 0, vertices, start, sorted.length);
+	}
+	
+	/**
+	 * @return the buffer already made for the same vertices, or the new buffer if there is none
+	 */
+	private static synchronized MeshBuffer share(MeshBuffer mesh) {
+		WeakReference<MeshBuffer> ref = shared.get(mesh);
+		MeshBuffer existing = ref == null ? null : ref.get();
+		if (existing != null) {
+			return existing;
+		}
+		shared.put(mesh, new WeakReference<MeshBuffer>(mesh));
+		return mesh;
+	}
+
+	private static int put(float[] vertices, int index, Vector3 p, float[] color) {
+		vertices[index++] = (float) p.x;
+		vertices[index++] = (float) p.y;
+		vertices[index++] = (float) p.z;
+		for (float c : color) {
+			vertices[index++] = c;
+		}
+		return index;
+	}
+
+	/**
+	 * @return true if the context supports vertex buffer objects, otherwise every shape draws itself in immediate mode
+	 */
+	static boolean isSupported(GL2 gl) {
+		return gl.isFunctionAvailable("glGenBuffers") && gl.isFunctionAvailable("glBindBuffer") && gl.isFunctionAvailable("glBufferData");
+	}
+
+	/**
+	 * Turns on the vertex and color arrays. Call before drawing any buffers.
+	 */
+	static void begin(GL2 gl) {
+		gl.glEnableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+		gl.glEnableClientState(GLPointerFunc.GL_COLOR_ARRAY);
+	}
+
+	/**
+	 * Unbinds the last buffer and turns off the vertex and color arrays. Call after drawing every buffer.
+	 */
+	static void end(GL2 gl) {
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+		gl.glDisableClientState(GLPointerFunc.GL_COLOR_ARRAY);
+		gl.glDisableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+	}
+
+	/**
+	 * Binds this buffer and points the vertex and color arrays at it, uploading it first if this is a new context.
+	 */
+	void bind(GL2 gl) {
+		bindBuffer(gl);
+		gl.glVertexPointer(3, GL.GL_FLOAT, STRIDE, 0);
+		gl.glColorPointer(4, GL.GL_FLOAT, STRIDE, 3 * Buffers.SIZEOF_FLOAT);
+	}
+	
+	/**
+	 * Binds this buffer and points two generic vertex attributes at it, for drawing with a shader.
+	 * @param position the location of the vec3 position attribute
+	 * @param color the location of the vec4 color attribute
+	 */
+	void bindAttributes(GL2ES2 gl, int position, int color) {
+		bindBuffer(gl);
+		gl.glVertexAttribPointer(position, 3, GL.GL_FLOAT, false, STRIDE, 0);
+		gl.glVertexAttribPointer(color, 4, GL.GL_FLOAT, false, STRIDE, 3 * Buffers.SIZEOF_FLOAT);
+	}
+	
+	private void bindBuffer(GL gl) {
+		if (context != gl.getContext()) {
+			int[] id = new int[1];
+			gl.glGenBuffers(1, id, 0);
+			bufferId = id[0];
+			gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferId);
+			gl.glBufferData(GL.GL_ARRAY_BUFFER, vertices.length * Buffers.SIZEOF_FLOAT, Buffers.newDirectFloatBuffer(vertices), GL.GL_STATIC_DRAW);
+			context = gl.getContext();
+		} else {
+			gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferId);
+		}
+	}
+
+	/**
+	 * Draws the bound buffer with the current model-view matrix.
+	 */
+	void draw(GL2 gl) {
+		if (numTriangleVertices != 0) {
+			gl.glDrawArrays(GL.GL_TRIANGLES, 0, numTriangleVertices);
+		}
+		if (numLineVertices != 0) {
+			gl.glDrawArrays(GL.GL_LINES, numTriangleVertices, numLineVertices);
+		}
+	}
+	
+	/**
+	 * Draws the bound buffer once for each instance.
+	 * @param instances the number of copies to draw
+	 */
+	void drawInstanced(GL2ES3 gl, int instances) {
+		if (numTriangleVertices != 0) {
+			gl.glDrawArraysInstanced(GL.GL_TRIANGLES, 0, numTriangleVertices, instances);
+		}
+		if (numLineVertices != 0) {
+			gl.glDrawArraysInstanced(GL.GL_LINES, numTriangleVertices, numLineVertices, instances);
+		}
+	}
+	
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof MeshBuffer)) {
+			return false;
+		}
+		MeshBuffer other = (MeshBuffer) o;
+		return numTriangleVertices == other.numTriangleVertices && Arrays.equals(vertices, other.vertices);
+	}
+	
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(vertices);
+	}
+
+}
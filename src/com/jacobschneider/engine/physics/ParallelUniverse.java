@@ -13,6 +13,7 @@ import javax.media.opengl.GLAutoDrawable;
 
 import com.jacobschneider.engine.Simulation;
 import com.jacobschneider.engine.framework.Drawable;
+import com.jacobschneider.engine.framework.Pair;
 import com.jacobschneider.engine.framework.ScalarField;
 import com.jacobschneider.engine.framework.Universe;
 import com.jacobschneider.engine.math.Vector3;
@@ -28,6 +29,7 @@ import com.jacobschneider.engine.physics.Collision.Contact;
 public class ParallelUniverse implements Universe,Drawable {	
 	private final List<Body> bodies = new ArrayList<Body>();
 	private final List<UpdateThreadRunnable> updates = new ArrayList<UpdateThreadRunnable>();
+	private final InstancedRenderer renderer = new InstancedRenderer(); // only touched by the GL thread
 	
 	ExecutorService exec;
 	
@@ -159,28 +161,39 @@ public class ParallelUniverse implements Universe,Drawable {
 		GL2 gl = drawable.getGL().getGL2();			
 		gl.glClear(GL.GL_COLOR_BUFFER_BIT | GL.GL_DEPTH_BUFFER_BIT); // clear color and depth buffer
 		
+		if (renderer.draw(drawable, bodies)) { // one draw call per distinct mesh
+			return;
+		}
+		boolean buffered = MeshBuffer.isSupported(gl);
+		if (buffered) {
+			MeshBuffer.begin(gl);
+		}
 		for (int i = 0; i < bodies.size(); i++) {
-			bodies.get(i).draw(drawable);
+			bodies.get(i).draw(drawable, buffered);
+		}
+		if (buffered) {
+			MeshBuffer.end(gl);
 		}
 	}
 	
 	/**
-	 * Determines if any objects are currently overlapping
+	 * Throws an {@link IllegalStateException} listing every pair of intersecting bodies, if there are any.
 	 */
 	private void checkIntersection() {
-		for (int i = 0; i < bodies.size(); i++) {
-			for (int j = 0; j < bodies.size(); j++) { // check for contacts with all other bodies except self
-				if (i == j) {
-					continue;
-				}
-				List<Contact> contact = bodies.get(i).collisionDetect(bodies.get(j)); // all contacts b/w two specific bodies
-				if (contact != null && contact.size() != 0) {	
-					throw new IllegalStateException("Bodies cannot be intersecting when the simulation begins");	
-				}		
-				
+		List<Body> dynamicBodies = new ArrayList<Body>();
+		List<Body> fixedBodies = new ArrayList<Body>();
+		for (Body b : bodies) {
+			if (b.isFixed()) {
+				fixedBodies.add(b);
+			} else {
+				dynamicBodies.add(b);
 			}
 		}
-		
+		List<Pair<Body, Body>> intersections = IntersectionFinder.find(dynamicBodies, new StaticBodyTree(fixedBodies));
+		if (!intersections.isEmpty()) {
+			throw new IllegalStateException("Bodies cannot be intersecting when the simulation begins. "
+											+ IntersectionFinder.describe(intersections, bodies));
+		}
 	}
 
 	@Override
@@ -1,8 +1,11 @@
 package com.jacobschneider.engine.physics;
 
+import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import com.jacobschneider.engine.framework.Manifold;
 import com.jacobschneider.engine.framework.PhysicsBody;
@@ -42,13 +45,13 @@ public class RigidBody6DOF implements PhysicsBody {
 	// inputs
 	private Vector3 force = Vector3.zero;
 	private Vector3 torque = Vector3.zero;
-	private Vector3 tempForce = Vector3.zero; // only applied if current time - tempStart is less than currTempDuration
-	private Vector3 tempTorque = Vector3.zero; // only applied if current time - tempStart is less than currTempDuration
-	private long tempStart = 0;
-	private float currTempDuration = 0;
+	private final Queue<Thrust> newThrusts = new ConcurrentLinkedQueue<Thrust>(); // thrusts added since the last update, from any thread
+	private final List<Thrust> thrusts = new ArrayList<Thrust>(); // thrusts with simulation time left, only touched by update
 	
 	// artificial constraints
 	private Manifold constraint = null;
+	
+	private Integrator integrator = Integrator.EXPLICIT_EULER;
 
 	
 	/**
@@ -135,6 +138,19 @@ public class RigidBody6DOF implements PhysicsBody {
 		// this effectively locks it to an axis
 	}	
 	
+	@Override
+	public final void setIntegrator(Integrator integrator) {
+		if (integrator == null) {
+			throw new IllegalArgumentException("Integrator cannot be null");
+		}
+		this.integrator = integrator;
+	}
+	
+	@Override
+	public final Integrator getIntegrator() {
+		return integrator;
+	}
+	
 	@Override
 	public final boolean isAxisFixed(Axis axis) {
 		List<Vector3> rowVects = inertiaBodyInv.toRowVectors();
@@ -238,8 +254,21 @@ public class RigidBody6DOF implements PhysicsBody {
 		return omega;
 	}
 	
-	private final boolean isThrusting() {
-		return (System.nanoTime() - this.tempStart) < (this.currTempDuration * 1000000000f);
+	/**
+	 * A temporary force and torque and the simulation time it has left.
+	 */
+	private static class Thrust {
+		final Object source; // null if the thrust adds to every other thrust
+		final Vector3 force;
+		final Vector3 torque;
+		double timeLeft;
+		
+		Thrust(Object source, Vector3 force, Vector3 torque, double duration) {
+			this.source = source;
+			this.force = force;
+			this.torque = torque;
+			this.timeLeft = duration;
+		}
 	}
 	
 	@Override
@@ -255,16 +284,30 @@ public class RigidBody6DOF implements PhysicsBody {
 		updateAux();
 	}
 	
+	@Override
+	public void enactAngularImpulse(Vector3 angularImpulse) {
+		L = angularImpulse.add(L);
+		updateAux();
+	}
+	
 	@Override
 	public void thrustInputs(Vector3 force, Vector3 torque, float duration) {
-		if (isThrusting()) {
+		if (duration <= 0) {
 			return;
 		}
-		this.tempForce = force;
-		this.tempTorque = torque;
-		this.tempStart = System.nanoTime();
-		this.currTempDuration = duration;		
-	}	
+		newThrusts.add(new Thrust(null, force, torque, duration));
+	}
+	
+	@Override
+	public void holdThrust(Object source, Vector3 force, Vector3 torque, float duration) {
+		if (source == null) {
+			throw new IllegalArgumentException("A held thrust needs a source");
+		}
+		if (duration <= 0) {
+			return;
+		}
+		newThrusts.add(new Thrust(source, force, torque, duration));
+	}
 	
 	@Override
 	public void update(double deltaTime) {		
@@ -275,17 +318,71 @@ public class RigidBody6DOF implements PhysicsBody {
 	
 	// private utility methods
 	private void updateState(double deltaTime) {
-		if (!isFixed()) {
+		if (isFixed()) {
+			newThrusts.clear();
+			thrusts.clear();
+			return;
+		}
+		Vector3 currForce = force;
+		Vector3 currTorque = torque;
+		// each thrust adds the force that gives the same impulse over this frame as it gives over the time it has left in the frame
+		Thrust newThrust;
+		while ((newThrust = newThrusts.poll()) != null) {
+			if (newThrust.source != null) { // replaces the thrust from the same source
+				for (int i = 0; i < thrusts.size(); i++) {
+					if (newThrust.source.equals(thrusts.get(i).source)) {
+						thrusts.remove(i);
+						break;
+					}
+				}
+			}
+			thrusts.add(newThrust);
+		}
+		for (int i = thrusts.size() - 1; i >= 0 && deltaTime > 0; i--) {
+			Thrust t = thrusts.get(i);
+			double fraction = Math.min(t.timeLeft, deltaTime) / deltaTime;
+			currForce = currForce.add(t.force.multScaler(fraction));
+			currTorque = currTorque.add(t.torque.multScaler(fraction));
+			t.timeLeft -= deltaTime;
+			if (t.timeLeft <= 0) {
+				thrusts.remove(i);
+			}
+		}
+		switch (integrator) {
+		case EXPLICIT_EULER:
 			updatePositions(deltaTime); // x and q are updated		
-			updateMomentums(deltaTime); // P and L are updated
-		}		
+			updateMomentums(deltaTime, currForce, currTorque); // P and L are updated
+			break;
+		case SEMI_IMPLICIT_EULER:
+			updateMomentums(deltaTime, currForce, currTorque);
+			updateAux(); // new v and omega
+			updatePositions(deltaTime);
+			break;
+		case EXPONENTIAL_MAP:
+			updateMomentums(deltaTime, currForce, currTorque);
+			updateAux();
+			x = v.multScaler(deltaTime).add(x);
+			q = rotate(q, omega, deltaTime);
+			break;
+		case VELOCITY_VERLET:
+			updateVerlet(deltaTime, currForce, currTorque);
+			break;
+		case RK4:
+			updateRungeKutta(deltaTime, currForce, currTorque);
+			break;
+		case IMPLICIT_GYROSCOPIC:
+			P = currForce.multScaler(deltaTime).add(P);
+			x = velocity(x, P).multScaler(deltaTime).add(x);
+			updateImplicitGyroscopic(deltaTime, currTorque);
+			break;
+		}
+		if (this.constraint != null) { // the projected velocity only keeps the body on a curved constraint to first order
+			x = constraint.mapToManifold(x);
+		}
 	}
 	
 	private void updatePositions(double deltaTime) {
 		x = v.multScaler(deltaTime).add(x);
-//		if (this.constraint != null) {
-//			this.x = constraint.closestPointOnSurface(x);
-//		}		
 		
 		Quaternion dQ = omegaQ.multQuat(q).multScaler(deltaTime).multScaler(0.5); // qdot = 0.5 * w(t) * q(t)
 		q = q.add(dQ);
@@ -293,18 +390,110 @@ public class RigidBody6DOF implements PhysicsBody {
 	}
 
 	
-	private void updateMomentums(double deltaTime) {
-		Vector3 currForce = force;
-		Vector3 currTorque = torque;
-		if (isThrusting()) {
-			currForce = currForce.add(this.tempForce);
-			currTorque = currTorque.add(this.tempTorque);
-		}
-
+	private void updateMomentums(double deltaTime, Vector3 currForce, Vector3 currTorque) {
 		P = currForce.multScaler(deltaTime).add(P);
 		L = currTorque.multScaler(deltaTime).add(L);
 	}
 	
+	/**
+	 * Half of the torque is applied before the rotation and half after, and the rotation uses the angular
+	 * velocity found at the middle of the frame. Position moves with the average of the old and new velocities.
+	 */
+	private void updateVerlet(double deltaTime, Vector3 currForce, Vector3 currTorque) {
+		Vector3 vOld = v;
+		Vector3 halfL = currTorque.multScaler(deltaTime / 2).add(L);
+		Quaternion qMid = rotate(q, angularVelocity(q, halfL), deltaTime / 2);
+		q = rotate(q, angularVelocity(qMid, halfL), deltaTime);
+		L = currTorque.multScaler(deltaTime / 2).add(halfL);
+		P = currForce.multScaler(deltaTime).add(P);
+		x = vOld.add(velocity(x, P)).multScaler(deltaTime / 2).add(x);
+	}
+	
+	private void updateRungeKutta(double deltaTime, Vector3 currForce, Vector3 currTorque) {
+		double h = deltaTime;
+		Vector3 dP = currForce; // the momentums change at a constant rate
+		Vector3 dL = currTorque;
+		
+		Vector3 dx1 = velocity(x, P);
+		Quaternion dq1 = spin(q, L);
+		
+		Vector3 x2 = dx1.multScaler(h / 2).add(x);
+		Quaternion q2 = q.add(dq1.multScaler(h / 2));
+		Vector3 P2 = dP.multScaler(h / 2).add(P);
+		Vector3 L2 = dL.multScaler(h / 2).add(L);
+		Vector3 dx2 = velocity(x2, P2);
+		Quaternion dq2 = spin(q2, L2);
+		
+		Vector3 x3 = dx2.multScaler(h / 2).add(x);
+		Quaternion q3 = q.add(dq2.multScaler(h / 2));
+		Vector3 dx3 = velocity(x3, P2);
+		Quaternion dq3 = spin(q3, L2);
+		
+		Vector3 x4 = dx3.multScaler(h).add(x);
+		Quaternion q4 = q.add(dq3.multScaler(h));
+		Vector3 P4 = dP.multScaler(h).add(P);
+		Vector3 L4 = dL.multScaler(h).add(L);
+		Vector3 dx4 = velocity(x4, P4);
+		Quaternion dq4 = spin(q4, L4);
+		
+		x = dx1.add(dx2.multScaler(2)).add(dx3.multScaler(2)).add(dx4).multScaler(h / 6).add(x);
+		q = q.add(dq1.add(dq2.multScaler(2)).add(dq3.multScaler(2)).add(dq4).multScaler(h / 6)).normalize();
+		P = P4;
+		L = L4;
+	}
+	
+	/**
+	 * Finds the angular velocity at the end of the frame by solving dL/dt = -w x L in body space with backward Euler,
+	 * L' = L - h * (Ib^-1 L') x L', using one Newton step from the current momentum, and rotates the body with it.
+	 * The world space angular momentum only changes by the torque, so it is conserved exactly and the rotational
+	 * energy can only fall.
+	 */
+	private void updateImplicitGyroscopic(double deltaTime, Vector3 currTorque) {
+		Vector3 L0 = currTorque.multScaler(deltaTime).add(L).multMatrixLeft(transR); // body space
+		Vector3 omega0 = L0.multMatrixLeft(inertiaBodyInv);
+		Vector3 residual = omega0.cross(L0).multScaler(deltaTime);
+		Matrix3 jacobian = Matrix3.IDENTITY.add(Matrix3.skew(omega0).subtract(Matrix3.skew(L0).multMatrix(inertiaBodyInv)).multScaler(deltaTime));
+		Vector3 LBody = L0.subtract(residual.multMatrixLeft(jacobian.invert()));
+		q = rotate(q, LBody.multMatrixLeft(inertiaBodyInv).multMatrixLeft(R), deltaTime);
+		L = currTorque.multScaler(deltaTime).add(L);
+	}
+	
+	/**
+	 * The velocity of the center of mass for a position and linear momentum.
+	 */
+	private Vector3 velocity(Vector3 x, Vector3 P) {
+		Vector3 v = P.multScaler(invMass);
+		if (this.constraint != null) {
+			v = this.constraint.projectToManifold(x, v);
+		}
+		return v;
+	}
+	
+	/**
+	 * The world space angular velocity for an orientation and angular momentum.
+	 */
+	private Vector3 angularVelocity(Quaternion q, Vector3 L) {
+		return L.multMatrixLeft(inertiaBodyInv.rotate(q.normalize().toMatrix()));
+	}
+	
+	/**
+	 * The rate of change of an orientation, qdot = 0.5 * w * q
+	 */
+	private Quaternion spin(Quaternion q, Vector3 L) {
+		return Quaternion.vectorQ(angularVelocity(q, L)).multQuat(q).multScaler(0.5);
+	}
+	
+	/**
+	 * Rotates an orientation by a constant world space angular velocity for a time.
+	 */
+	private static Quaternion rotate(Quaternion q, Vector3 omega, double deltaTime) {
+		double angle = omega.mag() * deltaTime;
+		if (angle == 0) {
+			return q;
+		}
+		return Quaternion.newQuaternion(angle, omega).multQuat(q).normalize();
+	}
+	
 	private void updateAux() {
 		v = P.multScaler(invMass);
 		if (this.constraint != null) {
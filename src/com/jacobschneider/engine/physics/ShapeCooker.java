@@ -0,0 +1,249 @@
+package com.jacobschneider.engine.physics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import com.jacobschneider.engine.framework.Primitive;
+import com.jacobschneider.engine.framework.Segment;
+import com.jacobschneider.engine.math.Vector3;
+import com.jacobschneider.engine.math.geometry.Primitives.Circle;
+import com.jacobschneider.engine.math.geometry.Primitives.OpenCylinder;
+import com.jacobschneider.engine.math.geometry.Primitives.Sphere;
+import com.jacobschneider.engine.math.geometry.Primitives.Triangle;
+
+/**
+ * Converts a {@link BasicShape} to and from a compact binary file (a "cooked" shape).
+ * Building a {@link BasicShape} from a set of primitives de-duplicates every segment through hash sets
+ * which is slow for large scenes. A cooked file already contains the unique primitives and segments so
+ * {@link #load(File)} memory maps the file and reads them straight into a new shape.
+ *
+ * Only the primitives in {@link com.jacobschneider.engine.math.geometry.Primitives} can be cooked.
+ * A {@link SphereShape} or {@link BoxShape} is loaded as the same class so it keeps its exact collision algorithms.
+ * Other subclasses of {@link BasicShape} cannot be cooked because they could not be restored.
+ *
+ * @author Jacob
+ *
+ */
+public final class ShapeCooker {
+	private static final int MAGIC = 0x45334453; // "E3DS"
+	private static final int VERSION = 2;
+	private static final int VERSION_WITHOUT_KIND = 1; // every shape loads as a plain BasicShape
+	private static final int HEADER_BYTES = 5 * 4; // magic, version, shape kind, number of primitives, number of segments
+	private static final int BOX_BYTES = 3 * 8; // half extents, only after the header of a box
+	private static final int RECORD_HEADER_BYTES = 2 * 4; // primitive type, rank
+	private static final int SEGMENT_BYTES = 6 * 8;
+
+	// primitive type tags
+	private static final int TRIANGLE = 0;
+	private static final int CIRCLE = 1;
+	private static final int OPEN_CYLINDER = 2;
+	private static final int SPHERE = 3;
+
+	// shape kind tags
+	private static final int BASIC_SHAPE = 0;
+	private static final int SPHERE_SHAPE = 1;
+	private static final int BOX_SHAPE = 2;
+
+	private ShapeCooker() {}
+
+	/**
+	 * Writes a shape to a cooked binary file. Any existing file is overwritten.
+	 * @param shape the shape to cook
+	 * @param file the destination file
+	 * @throws IOException if the file cannot be written
+	 * @throws IllegalArgumentException if the shape contains a primitive that cannot be cooked or is a subclass that cannot be loaded
+	 */
+	public static void cook(BasicShape shape, File file) throws IOException {
+		int kind = kindOf(shape);
+		Primitive[] prims = shape.getPrimitives();
+		Segment[] segs = shape.getSegments();
+
+		int size = HEADER_BYTES + (kind == BOX_SHAPE ? BOX_BYTES : 0) + segs.length * SEGMENT_BYTES;
+		for (Primitive p : prims) {
+			size += RECORD_HEADER_BYTES + 8 * numDoubles(typeOf(p));
+		}
+
+		ByteBuffer buf = ByteBuffer.allocate(size);
+		buf.putInt(MAGIC);
+		buf.putInt(VERSION);
+		buf.putInt(kind);
+		buf.putInt(prims.length);
+		buf.putInt(segs.length);
+		if (kind == BOX_SHAPE) {
+			putVector(buf, ((BoxShape) shape).getHalfExtents());
+		}
+		for (Primitive p : prims) {
+			writePrimitive(buf, p);
+		}
+		for (Segment s : segs) {
+			putVector(buf, s.a);
+			putVector(buf, s.b);
+		}
+		buf.flip();
+
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.setLength(0);
+			FileChannel channel = raf.getChannel();
+			while (buf.hasRemaining()) {
+				channel.write(buf);
+			}
+		}
+	}
+
+	/**
+	 * Loads a shape from a file created by {@link #cook(BasicShape, File)}.
+	 * @param file the cooked file
+	 * @return the resulting shape, a {@link SphereShape} or {@link BoxShape} if that is what was cooked
+	 * @throws IOException if the file cannot be read or is not a cooked shape
+	 */
+	public static BasicShape load(File file) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			FileChannel channel = raf.getChannel();
+			MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buf.remaining() < 2 * 4 || buf.getInt() != MAGIC) {
+				throw new IOException(file + " is not a cooked shape");
+			}
+			int version = buf.getInt();
+			if (version != VERSION && version != VERSION_WITHOUT_KIND) {
+				throw new IOException("Unsupported cooked shape version: " + version);
+			}
+			int kind = version == VERSION ? buf.getInt() : BASIC_SHAPE;
+			Primitive[] prims = new Primitive[buf.getInt()];
+			Segment[] segs = new Segment[buf.getInt()];
+			if (kind == BOX_SHAPE) { // rebuilt from its half extents, the primitives and segments are the same
+				Vector3 halfExtents = getVector(buf);
+				return new BoxShape(halfExtents.x, halfExtents.y, halfExtents.z);
+			}
+			for (int i = 0; i < prims.length; i++) {
+				prims[i] = readPrimitive(buf);
+			}
+			switch (kind) {
+				case BASIC_SHAPE:
+					for (int i = 0; i < segs.length; i++) {
+						segs[i] = new Segment(getVector(buf), getVector(buf));
+					}
+					return new BasicShape(prims, segs);
+				case SPHERE_SHAPE:
+					if (prims.length != 1 || !(prims[0] instanceof Sphere)) {
+						throw new IOException("A cooked sphere shape must have exactly one sphere primitive");
+					}
+					Sphere sphere = (Sphere) prims[0];
+					return new SphereShape(sphere.getCenter(), sphere.getRadius(), sphere.getRank());
+				default:
+					throw new IOException("Unknown shape kind in cooked shape: " + kind);
+			}
+		}
+	}
+
+	private static int kindOf(BasicShape shape) {
+		if (shape.getClass() == BasicShape.class) {
+			return BASIC_SHAPE;
+		} else if (shape.getClass() == SphereShape.class) {
+			return SPHERE_SHAPE;
+		} else if (shape.getClass() == BoxShape.class) {
+			return BOX_SHAPE;
+		}
+		throw new IllegalArgumentException("Shapes of type " + shape.getClass().getName() + " cannot be cooked");
+	}
+
+	private static int typeOf(Primitive p) {
+		if (p instanceof Triangle) {
+			return TRIANGLE;
+		} else if (p instanceof Circle) {
+			return CIRCLE;
+		} else if (p instanceof OpenCylinder) {
+			return OPEN_CYLINDER;
+		} else if (p instanceof Sphere) {
+			return SPHERE;
+		}
+		throw new IllegalArgumentException("Primitives of type " + p.getClass().getName() + " cannot be cooked");
+	}
+
+	private static int numDoubles(int type) {
+		switch (type) {
+			case TRIANGLE:
+				return 9; // a, b, c
+			case CIRCLE:
+				return 7; // center, normal, radius
+			case OPEN_CYLINDER:
+				return 8; // center, axis, length, radius
+			case SPHERE:
+				return 4; // center, radius
+			default:
+				throw new IllegalStateException("Unknown primitive type: " + type);
+		}
+	}
+
+	private static void writePrimitive(ByteBuffer buf, Primitive p) {
+		int type = typeOf(p);
+		buf.putInt(type);
+		switch (type) {
+			case TRIANGLE:
+				Triangle t = (Triangle) p;
+				buf.putInt(0);
+				putVector(buf, t.a);
+				putVector(buf, t.b);
+				putVector(buf, t.c);
+				break;
+			case CIRCLE:
+				Circle c = (Circle) p;
+				buf.putInt(c.getNumSegments());
+				putVector(buf, c.getCenter());
+				putVector(buf, c.getNormal());
+				buf.putDouble(c.getRadius());
+				break;
+			case OPEN_CYLINDER:
+				OpenCylinder cyl = (OpenCylinder) p;
+				buf.putInt(cyl.getNumSegments());
+				putVector(buf, cyl.getCenter());
+				putVector(buf, cyl.getAxis());
+				buf.putDouble(cyl.getLength());
+				buf.putDouble(cyl.getRadius());
+				break;
+			case SPHERE:
+				Sphere s = (Sphere) p;
+				buf.putInt(s.getRank());
+				putVector(buf, s.getCenter());
+				buf.putDouble(s.getRadius());
+				break;
+		}
+	}
+
+	private static Primitive readPrimitive(ByteBuffer buf) throws IOException {
+		int type = buf.getInt();
+		int rank = buf.getInt();
+		switch (type) {
+			case TRIANGLE:
+				return new Triangle(getVector(buf), getVector(buf), getVector(buf));
+			case CIRCLE:
+				Vector3 circleCenter = getVector(buf);
+				Vector3 normal = getVector(buf);
+				return new Circle(circleCenter, normal, buf.getDouble(), rank);
+			case OPEN_CYLINDER:
+				Vector3 cylCenter = getVector(buf);
+				Vector3 axis = getVector(buf);
+				double length = buf.getDouble();
+				return new OpenCylinder(cylCenter, axis, length, buf.getDouble(), rank);
+			case SPHERE:
+				Vector3 sphereCenter = getVector(buf);
+				return new Sphere(sphereCenter, buf.getDouble(), rank);
+			default:
+				throw new IOException("Unknown primitive type in cooked shape: " + type);
+		}
+	}
+
+	private static void putVector(ByteBuffer buf, Vector3 v) {
+		buf.putDouble(v.x);
+		buf.putDouble(v.y);
+		buf.putDouble(v.z);
+	}
+
+	private static Vector3 getVector(ByteBuffer buf) {
+		return new Vector3(buf.getDouble(), buf.getDouble(), buf.getDouble());
+	}
+
+}
@@ -9,7 +9,6 @@ import com.jacobschneider.engine.framework.Primitive;
 import com.jacobschneider.engine.math.Vector3;
 import com.jacobschneider.engine.math.geometry.Primitives.Circle;
 import com.jacobschneider.engine.math.geometry.Primitives.OpenCylinder;
-import com.jacobschneider.engine.math.geometry.Primitives.Sphere;
 import com.jacobschneider.engine.math.geometry.Primitives.Triangle;
 
 
@@ -22,9 +21,7 @@ public class Shapes {
 	 * @return A shape object representing a ball
 	 */
 	public static BasicShape newBall(Vector3 x, double r, int rank) {
-		Set<Primitive> prims = new HashSet<Primitive>();
-		prims.add(new Sphere(Vector3.zero, r, rank));
-		return new BasicShape(prims);
+		return new SphereShape(Vector3.zero, r, rank);
 	}	
 	
 	/**
@@ -62,6 +59,18 @@ public class Shapes {
 		return new BasicShape(prims);
 	}
 	
+	/**
+	 * Creates a box shape object. Boxes collide with each other through the separating axis theorem
+	 * instead of segment tests and are the preferred shape for cuboids.
+	 * @param x half length
+	 * @param y half width
+	 * @param z half height
+	 * @return A {@link BoxShape} representing a cuboid
+	 */
+	public static BoxShape newBox(double x, double y, double z) {
+		return new BoxShape(x, y, z);
+	}
+	
 	/**
 	 * Creates a flat shape of dimension x,y facing upwards towards z.
 	 * @param x width of the wall
@@ -148,4 +157,14 @@ public class Shapes {
 		return new BasicShape(prims);		
 	}
 
+	/**
+	 * Wraps a shape in its convex hull. Two hulls collide through GJK and EPA which is much faster than
+	 * testing every segment against every primitive for finely tessellated shapes.
+	 * @param shape the shape to wrap. Concave shapes will collide as if they were convex.
+	 * @return The {@link HullShape} of the shape.
+	 */
+	public static HullShape newConvexHull(BasicShape shape) {
+		return new HullShape(shape);
+	}
+
 }
@@ -0,0 +1,182 @@
+package com.jacobschneider.engine.physics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jacobschneider.engine.framework.PhysicsBody;
+import com.jacobschneider.engine.framework.Primitive;
+import com.jacobschneider.engine.framework.Shape;
+import com.jacobschneider.engine.math.Vector3;
+import com.jacobschneider.engine.math.geometry.Primitives.Circle;
+import com.jacobschneider.engine.math.geometry.Primitives.OpenCylinder;
+import com.jacobschneider.engine.math.geometry.Primitives.Sphere;
+import com.jacobschneider.engine.math.geometry.Primitives.Triangle;
+
+/**
+ * Analytic contact generation between a {@link SphereShape} and other primitives.
+ * All normals point away from the first shape and towards the second shape.
+ *
+ * @author Jacob
+ *
+ */
+final class SphereContacts {
+	private SphereContacts() {}
+
+	/**
+	 * Determines if every primitive of a shape has an analytic test against a sphere.
+	 * @param shape the shape to check
+	 * @return whether {@link #sphereShape(SphereShape, Shape, PhysicsBody, PhysicsBody, boolean)} can be used
+	 */
+	static boolean isSupported(Shape shape) {
+		for (Primitive p : shape.getPrimitives()) {
+			if (!(p instanceof Triangle || p instanceof Circle || p instanceof OpenCylinder || p instanceof Sphere)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Contact between two spheres. At most one contact is created at the middle of the overlap.
+	 */
+	static List<CollisionInterface> sphereSphere(SphereShape a, SphereShape b, PhysicsBody aBody, PhysicsBody bBody) {
+		List<CollisionInterface> inters = new ArrayList<CollisionInterface>(1);
+		Vector3 ca = aBody.toWorldSpace(a.getCenter());
+		Vector3 cb = bBody.toWorldSpace(b.getCenter());
+		CollisionInterface inter = sphereSphere(ca, a.getRadius(), cb, b.getRadius());
+		if (inter != null) {
+			inters.add(inter);
+		}
+		return inters;
+	}
+
+	/**
+	 * Contacts between a sphere and every primitive in another shape.
+	 * @param sphere the sphere
+	 * @param other a shape whose primitives are all supported (see {@link #isSupported(Shape)})
+	 * @param sphereBody the physics body of the sphere
+	 * @param otherBody the physics body of the other shape
+	 * @param flip if true the normals point from the other shape towards the sphere
+	 * @return all contacts in world space
+	 */
+	static List<CollisionInterface> sphereShape(SphereShape sphere, Shape other, PhysicsBody sphereBody, PhysicsBody otherBody, boolean flip) {
+		List<CollisionInterface> inters = new ArrayList<CollisionInterface>();
+		double r = sphere.getRadius();
+		Vector3 c = otherBody.toBodySpace(sphereBody.toWorldSpace(sphere.getCenter())); // sphere center in the other body's space
+		for (Primitive p : other.getPrimitives()) {
+			CollisionInterface inter;
+			if (p instanceof Sphere) {
+				Sphere s = (Sphere) p;
+				inter = sphereSphere(c, r, s.getCenter(), s.getRadius());
+			} else {
+				Vector3 q = closestPoint(p, c);
+				Vector3 d = q.subtract(c);
+				double dist2 = d.magSquared();
+				if (dist2 >= r * r) {
+					continue;
+				}
+				Vector3 n;
+				if (dist2 != 0) {
+					n = d.normalize();
+				} else if (p.getNormal() != null) {
+					n = p.getNormal().inverse(); // center exactly on a flat primitive
+				} else {
+					continue; // center exactly on a curved surface, no direction to push in
+				}
+				inter = new CollisionInterface(q, n);
+			}
+			if (inter == null) {
+				continue;
+			}
+			Vector3 worldR = otherBody.toWorldSpace(inter.r);
+			Vector3 worldN = inter.n.multMatrixLeft(otherBody.getR());
+			inters.add(new CollisionInterface(worldR, flip ? worldN.inverse() : worldN));
+		}
+		return inters;
+	}
+
+	private static CollisionInterface sphereSphere(Vector3 ca, double ra, Vector3 cb, double rb) {
+		Vector3 d = cb.subtract(ca);
+		double dist = d.mag();
+		if (dist >= ra + rb) {
+			return null;
+		}
+		Vector3 n = dist == 0 ? Vector3.k : d.multScaler(1 / dist);
+		double depth = ra + rb - dist;
+		return new CollisionInterface(ca.add(n.multScaler(ra - depth / 2)), n);
+	}
+
+	private static Vector3 closestPoint(Primitive p, Vector3 point) {
+		if (p instanceof Triangle) {
+			return closestPoint((Triangle) p, point);
+		} else if (p instanceof Circle) {
+			return closestPoint((Circle) p, point);
+		} else if (p instanceof OpenCylinder) {
+			return closestPoint((OpenCylinder) p, point);
+		}
+		throw new IllegalArgumentException("No closest point test for " + p.getClass().getName());
+	}
+
+	/**
+	 * Closest point on a triangle to a point. See Ericson, Real-Time Collision Detection 5.1.5.
+	 */
+	private static Vector3 closestPoint(Triangle t, Vector3 p) {
+		Vector3 ab = t.ab;
+		Vector3 ac = t.ac;
+		Vector3 ap = p.subtract(t.a);
+		double d1 = ab.dot(ap);
+		double d2 = ac.dot(ap);
+		if (d1 <= 0 && d2 <= 0) {
+			return t.a; // vertex region a
+		}
+		Vector3 bp = p.subtract(t.b);
+		double d3 = ab.dot(bp);
+		double d4 = ac.dot(bp);
+		if (d3 >= 0 && d4 <= d3) {
+			return t.b; // vertex region b
+		}
+		double vc = d1 * d4 - d3 * d2;
+		if (vc <= 0 && d1 >= 0 && d3 <= 0) {
+			return t.a.add(ab.multScaler(d1 / (d1 - d3))); // edge region ab
+		}
+		Vector3 cp = p.subtract(t.c);
+		double d5 = ab.dot(cp);
+		double d6 = ac.dot(cp);
+		if (d6 >= 0 && d5 <= d6) {
+			return t.c; // vertex region c
+		}
+		double vb = d5 * d2 - d1 * d6;
+		if (vb <= 0 && d2 >= 0 && d6 <= 0) {
+			return t.a.add(ac.multScaler(d2 / (d2 - d6))); // edge region ac
+		}
+		double va = d3 * d6 - d5 * d4;
+		if (va <= 0 && (d4 - d3) >= 0 && (d5 - d6) >= 0) {
+			return t.b.add(t.bc.multScaler((d4 - d3) / ((d4 - d3) + (d5 - d6)))); // edge region bc
+		}
+		double denom = 1 / (va + vb + vc); // inside the face
+		return t.a.add(ab.multScaler(vb * denom)).add(ac.multScaler(vc * denom));
+	}
+
+	private static Vector3 closestPoint(Circle circle, Vector3 p) {
+		Vector3 n = circle.getNormal().normalize();
+		Vector3 inPlane = p.subtract(circle.getCenter()).projectToPlane(n);
+		double dist = inPlane.mag();
+		if (dist > circle.getRadius()) {
+			inPlane = inPlane.multScaler(circle.getRadius() / dist);
+		}
+		return circle.getCenter().add(inPlane);
+	}
+
+	private static Vector3 closestPoint(OpenCylinder cyl, Vector3 p) {
+		Vector3 axis = cyl.getAxis().normalize();
+		Vector3 r = p.subtract(cyl.getCenter());
+		double halfLength = cyl.getLength() / 2;
+		double t = Math.max(-halfLength, Math.min(halfLength, r.dot(axis)));
+		Vector3 radial = r.projectToPlane(axis).normalize();
+		if (radial.equals(Vector3.zero)) {
+			radial = axis.randomPerp(); // on the axis, every point on the rim is equally close
+		}
+		return cyl.getCenter().add(axis.multScaler(t)).add(radial.multScaler(cyl.getRadius()));
+	}
+
+}
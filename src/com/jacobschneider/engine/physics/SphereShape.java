@@ -0,0 +1,49 @@
+package com.jacobschneider.engine.physics;
+
+import java.util.Collections;
+
+import com.jacobschneider.engine.framework.Primitive;
+import com.jacobschneider.engine.math.Vector3;
+import com.jacobschneider.engine.math.geometry.Primitives.Sphere;
+
+/**
+ * A {@link BasicShape} made of a single {@link Sphere} primitive.
+ * Collisions between a sphere and another sphere, a {@link com.jacobschneider.engine.math.geometry.Primitives.Triangle},
+ * a {@link com.jacobschneider.engine.math.geometry.Primitives.Circle} or an
+ * {@link com.jacobschneider.engine.math.geometry.Primitives.OpenCylinder} are calculated exactly instead of
+ * through the segments of the sphere. Any other primitive falls back to the segment algorithm of {@link BasicShape}.
+ *
+ * @author Jacob
+ *
+ */
+public class SphereShape extends BasicShape {
+	private final Vector3 center;
+	private final double radius;
+
+	/**
+	 * Creates a spherical shape.
+	 * @param center center of the sphere in body space
+	 * @param radius radius of the sphere
+	 * @param rank complexity of the segments used for drawing and for collisions with unsupported primitives
+	 */
+	public SphereShape(Vector3 center, double radius, int rank) {
+		super(Collections.<Primitive>singleton(new Sphere(center, radius, rank)));
+		this.center = center;
+		this.radius = radius;
+	}
+
+	/**
+	 * @return the center of the sphere in body space
+	 */
+	public Vector3 getCenter() {
+		return center;
+	}
+
+	/**
+	 * @return the radius of the sphere
+	 */
+	public double getRadius() {
+		return radius;
+	}
+
+}
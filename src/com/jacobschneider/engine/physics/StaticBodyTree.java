@@ -0,0 +1,288 @@
+package com.jacobschneider.engine.physics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.jacobschneider.engine.framework.Pair;
+import com.jacobschneider.engine.math.Vector3;
+
+/**
+ * A bounding volume hierarchy over {@link Body} objects that never move.
+ * The tree is built from the world space boxes returned by {@link Body#getEnclosingBox()}, so a moving body
+ * can find the level geometry it might touch without testing every fixed body in the universe.
+ * Bodies whose bounding volume is unbounded are kept in a separate list that every query returns.
+ * Bodies can be inserted and removed after the tree is built. Inserted bodies go down the branch whose box grows
+ * the least and full leaves are split. Removed bodies do not shrink the boxes above them, which only makes queries
+ * a little looser.
+ *
+ * @author Jacob
+ *
+ */
+final class StaticBodyTree {
+	private static final int LEAF_SIZE = 4; // maximum number of bodies in a leaf
+
+	private final List<Body> unbounded = new ArrayList<Body>();
+	private final Map<Body, Node> leafOf = new IdentityHashMap<Body, Node>(); // the leaf that holds each bounded body
+	private Node root;
+	private int size;
+
+	/**
+	 * Builds a tree over a list of bodies. The bodies should all be fixed.
+	 * @param bodies the bodies to place in the tree
+	 */
+	StaticBodyTree(List<Body> bodies) {
+		List<Entry> entries = new ArrayList<Entry>();
+		for (Body b : bodies) {
+			Pair<Vector3, Vector3> box = b.getEnclosingBox();
+			if (box == null) {
+				unbounded.add(b);
+			} else {
+				entries.add(new Entry(b, box.a.toArray(), box.b.toArray()));
+			}
+		}
+		this.root = entries.isEmpty() ? null : build(entries);
+		this.size = bodies.size();
+	}
+
+	/**
+	 * @return the number of bodies in this tree
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Adds a body to the tree. The body should be fixed.
+	 * @param b the body to add
+	 */
+	void insert(Body b) {
+		size++;
+		Pair<Vector3, Vector3> box = b.getEnclosingBox();
+		if (box == null) {
+			unbounded.add(b);
+			return;
+		}
+		Entry e = new Entry(b, box.a.toArray(), box.b.toArray());
+		if (root == null) {
+			List<Entry> entries = new ArrayList<Entry>();
+			entries.add(e);
+			root = build(entries);
+			return;
+		}
+		Node node = root;
+		while (node.entries == null) {
+			node.grow(e);
+			node = node.left.growth(e) <= node.right.growth(e) ? node.left : node.right;
+		}
+		node.grow(e);
+		node.entries.add(e);
+		leafOf.put(b, node);
+		if (node.entries.size() > LEAF_SIZE) { // split the leaf in place
+			Node split = build(node.entries);
+			node.entries = null;
+			node.left = split.left;
+			node.right = split.right;
+		}
+	}
+	
+	/**
+	 * Removes a body from the tree.
+	 * @param b the body to remove
+	 * @return true if the body was in the tree
+	 */
+	boolean remove(Body b) {
+		Node leaf = leafOf.remove(b);
+		if (leaf == null) {
+			for (int i = 0; i < unbounded.size(); i++) {
+				if (unbounded.get(i) == b) {
+					unbounded.remove(i);
+					size--;
+					return true;
+				}
+			}
+			return false;
+		}
+		for (int i = 0; i < leaf.entries.size(); i++) {
+			if (leaf.entries.get(i).body == b) {
+				leaf.entries.remove(i);
+				break;
+			}
+		}
+		size--;
+		return true;
+	}
+
+	/**
+	 * Finds every body whose box overlaps a world space box.
+	 * @param box the {min, max} corners of the box, or null to return every body
+	 * @param out the list that the bodies are added to
+	 * @param scratch the stack the tree is walked with, reused by the caller so that a query allocates nothing
+	 */
+	void query(Pair<Vector3, Vector3> box, List<Body> out, QueryStack scratch) {
+		out.addAll(unbounded);
+		if (root == null) {
+			return;
+		}
+		if (box == null) {
+			root.addAll(out);
+			return;
+		}
+		double[] min = scratch.min;
+		double[] max = scratch.max;
+		min[0] = box.a.x; min[1] = box.a.y; min[2] = box.a.z;
+		max[0] = box.b.x; max[1] = box.b.y; max[2] = box.b.z;
+		Node[] stack = scratch.nodes;
+		int top = 0;
+		stack[top++] = root;
+		while (top != 0) {
+			Node node = stack[--top];
+			stack[top] = null;
+			if (!overlaps(node.min, node.max, min, max)) {
+				continue;
+			}
+			if (node.entries != null) {
+				for (int i = 0; i < node.entries.size(); i++) {
+					Entry e = node.entries.get(i);
+					if (overlaps(e.min, e.max, min, max)) {
+						out.add(e.body);
+					}
+				}
+			} else {
+				if (top + 2 > stack.length) { // inserts can make the tree deeper than it was built
+					stack = scratch.nodes = Arrays.copyOf(stack, stack.length * 2);
+				}
+				stack[top++] = node.left;
+				stack[top++] = node.right;
+			}
+		}
+	}
+
+	/**
+	 * Recursively splits the entries at the median of the longest axis of their centers.
+	 */
+	private Node build(List<Entry> entries) {
+		Node node = new Node();
+		node.min = new double[] {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+		node.max = new double[] {-Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+		double[] centerMin = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+		double[] centerMax = {-Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+		for (Entry e : entries) {
+			for (int i = 0; i < 3; i++) {
+				node.min[i] = Math.min(node.min[i], e.min[i]);
+				node.max[i] = Math.max(node.max[i], e.max[i]);
+				centerMin[i] = Math.min(centerMin[i], e.center(i));
+				centerMax[i] = Math.max(centerMax[i], e.center(i));
+			}
+		}
+		if (entries.size() <= LEAF_SIZE) {
+			node.entries = new ArrayList<Entry>(entries);
+			for (Entry e : entries) {
+				leafOf.put(e.body, node);
+			}
+			return node;
+		}
+		int axis = 0;
+		for (int i = 1; i < 3; i++) {
+			if (centerMax[i] - centerMin[i] > centerMax[axis] - centerMin[axis]) {
+				axis = i;
+			}
+		}
+		final int sortAxis = axis;
+		Collections.sort(entries, new Comparator<Entry>() {
+			@Override
+			public int compare(Entry e1, Entry e2) {
+				return Double.compare(e1.center(sortAxis), e2.center(sortAxis));
+			}
+		});
+		int mid = entries.size() / 2;
+		node.left = build(entries.subList(0, mid));
+		node.right = build(entries.subList(mid, entries.size()));
+		return node;
+	}
+
+	private static boolean overlaps(double[] min1, double[] max1, double[] min2, double[] max2) {
+		return min1[0] <= max2[0] && min2[0] <= max1[0] &&
+			   min1[1] <= max2[1] && min2[1] <= max1[1] &&
+			   min1[2] <= max2[2] && min2[2] <= max1[2];
+	}
+
+	/**
+	 * A body and its world space box.
+	 */
+	private static class Entry {
+		final Body body;
+		final double[] min;
+		final double[] max;
+
+		Entry(Body body, double[] min, double[] max) {
+			this.body = body;
+			this.min = min;
+			this.max = max;
+		}
+
+		double center(int axis) {
+			return (min[axis] + max[axis]) / 2;
+		}
+	}
+
+	/**
+	 * A node of the tree. Leaves have entries and no children, inner nodes have two children and no entries.
+	 */
+	/**
+	 * The working memory of {@link StaticBodyTree#query(Pair, List, QueryStack)}. Each thread that queries needs its own.
+	 */
+	static final class QueryStack {
+		private Node[] nodes = new Node[64];
+		private final double[] min = new double[3];
+		private final double[] max = new double[3];
+	}
+
+	private static class Node {
+		double[] min;
+		double[] max;
+		Node left;
+		Node right;
+		List<Entry> entries;
+
+		void grow(Entry e) {
+			for (int i = 0; i < 3; i++) {
+				min[i] = Math.min(min[i], e.min[i]);
+				max[i] = Math.max(max[i], e.max[i]);
+			}
+		}
+		
+		/**
+		 * @return how much the surface area of this node would grow if it had to contain an entry
+		 */
+		double growth(Entry e) {
+			double[] size = new double[3];
+			double[] grownSize = new double[3];
+			for (int i = 0; i < 3; i++) {
+				size[i] = max[i] - min[i];
+				grownSize[i] = Math.max(max[i], e.max[i]) - Math.min(min[i], e.min[i]);
+			}
+			return area(grownSize) - area(size);
+		}
+		
+		private static double area(double[] size) {
+			return size[0] * size[1] + size[1] * size[2] + size[2] * size[0];
+		}
+
+		void addAll(List<Body> out) {
+			if (entries != null) {
+				for (Entry e : entries) {
+					out.add(e.body);
+				}
+			} else {
+				left.addAll(out);
+				right.addAll(out);
+			}
+		}
+	}
+
+}